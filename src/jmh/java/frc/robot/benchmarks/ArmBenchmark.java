@@ -0,0 +1,61 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import frc.robot.subsystems.Arm;
+import frc.robot.subsystems.io.ArmIOSim;
+import static frc.robot.Constants.ArmConstants.*;
+
+/**
+ * Arm.runAutomatic(): the trapezoid profile sample and the feedforward, on the
+ * simulated arm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArmBenchmark {
+
+  private Arm arm;
+  private boolean high = false;
+
+  @Setup
+  public void setup() {
+    BenchmarkRobot.initializeHal();
+    arm = new Arm(new ArmIOSim());
+  }
+
+  /**
+   * Starts a long move from the home position before every iteration (the arm
+   * is not stepped, so it stays there), so runAutomatic() samples a
+   * running profile instead of holding a finished one.
+   */
+  @Setup(Level.Iteration)
+  public void startMove() {
+    high = !high;
+    arm.setTargetPosition(high ? POSITION_02 : POSITION_03);
+  }
+
+  @Benchmark
+  public void runAutomatic() {
+    arm.runAutomatic();
+  }
+
+  /**
+   * A new target every call, which rebuilds the profile, e.g. when the
+   * operator changes the arm position.
+   */
+  @Benchmark
+  public void retargetAndRunAutomatic() {
+    high = !high;
+    arm.setTargetPosition(high ? POSITION_03 : POSITION_01);
+    arm.runAutomatic();
+  }
+
+}
@@ -0,0 +1,45 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.subsystems.io.GyroIOSim;
+import frc.robot.subsystems.io.SwerveModuleIOSim;
+
+/**
+ * Shared setup for the benchmarks. The subsystems run on the simulation IO
+ * layer, so no hardware is needed, but WPILib still needs the HAL (timers,
+ * notifiers, NetworkTables and the command scheduler).
+ */
+final class BenchmarkRobot {
+
+  private static boolean halInitialized = false;
+
+  private BenchmarkRobot() {
+  }
+
+  /**
+   * Starts the simulation HAL once per benchmark JVM.
+   */
+  static synchronized void initializeHal() {
+    if (!halInitialized) {
+      if (!HAL.initialize(500, 0)) {
+        throw new IllegalStateException("Failed to initialize the HAL");
+      }
+      halInitialized = true;
+    }
+  }
+
+  /**
+   * Creates a simulated swerve drive with odometry integrated on the calling
+   * thread, like the robot loop with high rate odometry off, so the sampler
+   * thread does not run alongside the benchmark.
+   */
+  static SwerveDrive createSwerveDrive() {
+    initializeHal();
+    SwerveDrive swerveDrive = new SwerveDrive(new SwerveModuleIOSim(), new SwerveModuleIOSim(),
+        new SwerveModuleIOSim(), new SwerveModuleIOSim(), new GyroIOSim());
+    swerveDrive.setHighRateOdometry(false);
+    return swerveDrive;
+  }
+
+}
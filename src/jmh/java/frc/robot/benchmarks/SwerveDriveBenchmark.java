@@ -0,0 +1,166 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.subsystems.SwerveModule;
+import frc.robot.subsystems.io.SwerveModuleIOSim;
+import frc.robot.util.MutableModulePosition;
+import frc.robot.util.SwerveKinematics;
+import frc.robot.util.SwerveOdometry;
+import frc.robot.util.SwervePoseEstimator;
+import frc.robot.util.SwerveSetpointGenerator;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+import static frc.robot.Constants.VisionConstants.POSE_HISTORY_CAPACITY;
+import static frc.robot.Constants.VisionConstants.POSE_HISTORY_SECONDS;
+import static frc.robot.Constants.VisionConstants.STATE_STD_DEVS;
+import static frc.robot.Constants.VisionConstants.VISION_STD_DEVS;
+
+/**
+ * Drive code that runs every cycle: SwerveDrive.drive() from the joysticks,
+ * the kinematics and desaturation behind it, the module setpoint math and the
+ * odometry update.
+ *
+ * The inputs cycle through a table of joystick positions so the setpoint
+ * generator and the module optimization always have work to do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwerveDriveBenchmark {
+
+  private static final int INPUT_COUNT = 64;
+  private static final double DT = 0.02;
+
+  private final double[] xInputs = new double[INPUT_COUNT];
+  private final double[] yInputs = new double[INPUT_COUNT];
+  private final double[] rotationInputs = new double[INPUT_COUNT];
+  private int input = 0;
+
+  private SwerveDrive swerveDrive;
+  private SwerveModule module;
+
+  private final SwerveSetpointGenerator setpointGenerator = new SwerveSetpointGenerator();
+  private final double[] speeds = new double[4];
+  private final double[] angles = new double[4];
+
+  private final MutableModulePosition[] positions = new MutableModulePosition[4];
+  private SwerveOdometry odometry;
+  private SwervePoseEstimator poseEstimator;
+  private double gyroRadians = 0.0;
+  private double timestamp = 0.0;
+
+  @Setup
+  public void setup() {
+    // A full circle of the translation stick with the rotation stick sweeping
+    // back and forth.
+    for (int i = 0; i < INPUT_COUNT; i++) {
+      double angle = 2.0 * Math.PI * i / INPUT_COUNT;
+      xInputs[i] = 0.8 * Math.cos(angle);
+      yInputs[i] = 0.8 * Math.sin(angle);
+      rotationInputs[i] = 0.5 * Math.sin(2.0 * angle);
+    }
+
+    swerveDrive = BenchmarkRobot.createSwerveDrive();
+    module = new SwerveModule(new SwerveModuleIOSim(), 0.0);
+    module.readSensors();
+
+    for (int i = 0; i < 4; i++) {
+      positions[i] = new MutableModulePosition();
+    }
+    odometry = new SwerveOdometry(MODULE_TRANSLATIONS, 0.0, positions, new Pose2d());
+    poseEstimator = new SwervePoseEstimator(MODULE_TRANSLATIONS, 0.0, positions, new Pose2d(), STATE_STD_DEVS,
+        VISION_STD_DEVS, POSE_HISTORY_SECONDS, POSE_HISTORY_CAPACITY);
+  }
+
+  private int nextInput() {
+    input = (input + 1) & (INPUT_COUNT - 1);
+    return input;
+  }
+
+  @Benchmark
+  public void drive() {
+    int i = nextInput();
+    swerveDrive.drive(xInputs[i], yInputs[i], rotationInputs[i], true);
+  }
+
+  @Benchmark
+  public void driveRobotRelative() {
+    int i = nextInput();
+    swerveDrive.drive(xInputs[i], yInputs[i], rotationInputs[i], false);
+  }
+
+  /**
+   * WPILib kinematics and desaturation, as SwerveDrive used before
+   * SwerveKinematics.
+   */
+  @Benchmark
+  public SwerveModuleState[] wpilibKinematics() {
+    int i = nextInput();
+    SwerveModuleState[] states = SWERVE_DRIVE_KINEMATICS.toSwerveModuleStates(new ChassisSpeeds(
+        xInputs[i] * MAX_METERS_PER_SECOND, yInputs[i] * MAX_METERS_PER_SECOND,
+        rotationInputs[i] * MAX_ANGULAR_SPEED));
+    SwerveDriveKinematics.desaturateWheelSpeeds(states, MAX_METERS_PER_SECOND);
+    return states;
+  }
+
+  @Benchmark
+  public double[] swerveKinematics() {
+    int i = nextInput();
+    SWERVE_KINEMATICS.toModuleStates(xInputs[i] * MAX_METERS_PER_SECOND, yInputs[i] * MAX_METERS_PER_SECOND,
+        rotationInputs[i] * MAX_ANGULAR_SPEED, speeds, angles);
+    SwerveKinematics.desaturate(speeds, MAX_METERS_PER_SECOND);
+    return speeds;
+  }
+
+  @Benchmark
+  public double[] setpointGenerator() {
+    int i = nextInput();
+    setpointGenerator.calculate(xInputs[i] * MAX_METERS_PER_SECOND, yInputs[i] * MAX_METERS_PER_SECOND,
+        rotationInputs[i] * MAX_ANGULAR_SPEED, DT, speeds, angles);
+    return speeds;
+  }
+
+  /**
+   * Module optimization (flip, cosine compensation) for a new angle every
+   * call.
+   */
+  @Benchmark
+  public void moduleSetDesiredState() {
+    int i = nextInput();
+    module.setDesiredState(2.0, 2.0 * Math.PI * i / INPUT_COUNT - Math.PI);
+  }
+
+  private void advanceModules() {
+    int i = nextInput();
+    for (int m = 0; m < 4; m++) {
+      positions[m].distanceMeters += 0.05;
+      positions[m].angleRadians = 2.0 * Math.PI * i / INPUT_COUNT - Math.PI;
+    }
+    gyroRadians += 0.01;
+    timestamp += DT;
+  }
+
+  @Benchmark
+  public void odometryUpdate() {
+    advanceModules();
+    odometry.update(gyroRadians, positions);
+  }
+
+  @Benchmark
+  public void poseEstimatorUpdate() {
+    advanceModules();
+    poseEstimator.update(timestamp, gyroRadians, positions);
+  }
+
+}
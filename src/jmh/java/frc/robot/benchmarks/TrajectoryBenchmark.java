@@ -0,0 +1,71 @@
+package frc.robot.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import frc.robot.util.TrajectoryCursor;
+import frc.robot.util.TrajectorySample;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+
+/**
+ * Sampling a trajectory once per cycle at increasing times, as a follower
+ * does: Trajectory.sample() against TrajectoryCursor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrajectoryBenchmark {
+
+  private static final double DT = 0.02;
+
+  private Trajectory trajectory;
+  private TrajectoryCursor cursor;
+  private final TrajectorySample sample = new TrajectorySample();
+  private double time = 0.0;
+
+  @Setup
+  public void setup() {
+    // Same shape as the Mayhem test autos.
+    TrajectoryConfig config = new TrajectoryConfig(Math.PI, Math.PI).setKinematics(SWERVE_DRIVE_KINEMATICS);
+    trajectory = TrajectoryGenerator.generateTrajectory(
+        new Pose2d(0, 0, new Rotation2d(0)),
+        List.of(new Translation2d(-0.75, -0.33), new Translation2d(-2.0, -0.5)),
+        new Pose2d(-3.5, -0.33, new Rotation2d(0)), config);
+    cursor = new TrajectoryCursor(trajectory);
+  }
+
+  /**
+   * Advances one cycle, starting over at the end of the trajectory.
+   */
+  private double nextTime() {
+    time += DT;
+    if (time > trajectory.getTotalTimeSeconds()) {
+      time = 0.0;
+    }
+    return time;
+  }
+
+  @Benchmark
+  public Trajectory.State trajectorySample() {
+    return trajectory.sample(nextTime());
+  }
+
+  @Benchmark
+  public TrajectorySample cursorSample() {
+    cursor.sample(nextTime(), sample);
+    return sample;
+  }
+
+}
@@ -0,0 +1,148 @@
+package frc.robot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.photonvision.common.dataflow.structures.Packet;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import org.photonvision.targeting.TargetCorner;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.subsystems.GamePieceVision;
+import frc.robot.util.GamePieceDetection;
+import frc.robot.util.GamePieceTracker;
+import static frc.robot.Constants.GamePieceVisionConstants.*;
+
+/**
+ * Vision result decoding: the PhotonVision pipeline result packet that
+ * PhotonCamera.getLatestResult() decodes every cycle, and the packed ML
+ * detection frames GamePieceVision reads from NetworkTables, tracks and maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VisionBenchmark {
+
+  private static final int TAG_COUNT = 2;
+  private static final int DETECTION_COUNT = 3;
+
+  private byte[] photonBytes;
+
+  private GamePieceVision gamePieceVision;
+  private DoubleArrayPublisher detectionsPublisher;
+  private final double[] frame = new double[FRAME_HEADER_LENGTH + DETECTION_COUNT * DETECTION_LENGTH];
+  private long frameId = 0;
+
+  private final GamePieceTracker tracker = new GamePieceTracker();
+  private final GamePieceDetection[] detections = new GamePieceDetection[DETECTION_COUNT];
+  private double trackerTime = 0.0;
+
+  @Setup
+  public void setup() {
+    // A typical AprilTag result: two tags with their corners and poses.
+    List<PhotonTrackedTarget> targets = new ArrayList<>();
+    for (int i = 0; i < TAG_COUNT; i++) {
+      List<TargetCorner> corners = List.of(new TargetCorner(100 + i, 100), new TargetCorner(140 + i, 100),
+          new TargetCorner(140 + i, 140), new TargetCorner(100 + i, 140));
+      Transform3d cameraToTarget = new Transform3d(new Translation3d(2.0 + i, 0.3, 0.2), new Rotation3d(0, 0, 0.1));
+      targets.add(new PhotonTrackedTarget(5.0 * i, 2.0, 1.5, 0.0, i + 1, cameraToTarget, cameraToTarget, 0.05,
+          corners, corners));
+    }
+    PhotonPipelineResult result = new PhotonPipelineResult(12.0, targets);
+    Packet packet = new Packet(result.getPacketSize());
+    result.populatePacket(packet);
+    photonBytes = packet.getData();
+
+    gamePieceVision = new GamePieceVision(BenchmarkRobot.createSwerveDrive());
+    detectionsPublisher = NetworkTableInstance.getDefault().getTable(TABLE_NAME)
+        .getDoubleArrayTopic(DETECTIONS_TOPIC)
+        .publish(PubSubOption.sendAll(true), PubSubOption.keepDuplicates(true));
+
+    // A cube and two cones, in the coprocessor's frame layout.
+    frame[2] = DETECTION_COUNT;
+    for (int i = 0; i < DETECTION_COUNT; i++) {
+      int offset = FRAME_HEADER_LENGTH + i * DETECTION_LENGTH;
+      frame[offset] = i == 0 ? CUBE_CLASS_ID : CONE_CLASS_ID;
+      frame[offset + 1] = 0.9;
+      frame[offset + 2] = 10 + 45 * i;
+      frame[offset + 3] = 60;
+      frame[offset + 4] = 30 + 45 * i;
+      frame[offset + 5] = 90;
+      frame[offset + 6] = 1.5 + i;
+
+      detections[i] = new GamePieceDetection();
+      detections[i].classId = (int) frame[offset];
+      detections[i].confidence = frame[offset + 1];
+      detections[i].xMin = frame[offset + 2];
+      detections[i].yMin = frame[offset + 3];
+      detections[i].xMax = frame[offset + 4];
+      detections[i].yMax = frame[offset + 5];
+      detections[i].distanceMeters = frame[offset + 6];
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    detectionsPublisher.close();
+  }
+
+  /**
+   * Decodes a pipeline result from its raw bytes, as PhotonCamera does.
+   */
+  @Benchmark
+  public PhotonPipelineResult photonResultDecode() {
+    PhotonPipelineResult result = new PhotonPipelineResult();
+    result.createFromPacket(new Packet(photonBytes));
+    return result;
+  }
+
+  /**
+   * One ML frame per cycle, through NetworkTables into
+   * GamePieceVision.readSensors(): validation, decoding, tracking and (when
+   * ML_CAMERA_CALIBRATED is set) mapping.
+   */
+  @Benchmark
+  public int gamePieceFrame() {
+    frame[0] = Timer.getFPGATimestamp() * 1E6;
+    frame[1] = ++frameId;
+    detectionsPublisher.set(frame);
+    gamePieceVision.readSensors();
+    return gamePieceVision.getDetectionCount();
+  }
+
+  /**
+   * Just the tracker update for a decoded frame, without NetworkTables. The
+   * boxes drift across the image and jump back, like pieces passing by.
+   */
+  @Benchmark
+  public int gamePieceTrackerUpdate() {
+    trackerTime += 0.02;
+    for (int i = 0; i < DETECTION_COUNT; i++) {
+      detections[i].xMin += 0.25;
+      detections[i].xMax += 0.25;
+    }
+    if (detections[DETECTION_COUNT - 1].xMax > IMAGE_WIDTH) {
+      for (int i = 0; i < DETECTION_COUNT; i++) {
+        detections[i].xMin -= 40;
+        detections[i].xMax -= 40;
+      }
+    }
+    tracker.update(detections, DETECTION_COUNT, trackerTime);
+    return tracker.getActiveTrackCount();
+  }
+
+}
@@ -1,12 +1,17 @@
 package frc.robot;
 
+import com.pathplanner.lib.PathConstraints;
 import com.revrobotics.CANSparkMax.IdleMode;
 
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.controller.ArmFeedforward;
 import edu.wpi.first.math.util.Units;
+import frc.robot.util.SwerveKinematics;
 import java.lang.Math;
 
 public final class Constants {
@@ -18,6 +23,19 @@ public final class Constants {
     public static final double OUTTAKE_LOW_SPEED = 0.6;
     public static final int INTAKE_PISTON_SOLENOID_CHANNEL = 1;
     public static final int LIFTER_PISTON_SOLENOID_CHANNEL = 2;
+
+    // Game piece detection from the roller current. The start-up current spike
+    // is ignored.
+    public static final double ROLLER_SPINUP_SECONDS = 0.2;
+    // TODO: UNCALIBRATED guess. Tune from "Intake Roller Current" on the
+    // dashboard (free spinning vs. with a cube), then set PIECE_SENSING_ENABLED.
+    public static final double PIECE_CURRENT_AMPS = 20.0;
+    // Whether the autos end intake/outtake steps on the roller current. Until
+    // PIECE_CURRENT_AMPS is calibrated they run for their timeouts.
+    public static final boolean PIECE_SENSING_ENABLED = false;
+    public static final double PIECE_DETECT_SECONDS = 0.1;
+    public static final double PIECE_EJECT_SECONDS = 0.2;
+    public static final double SIM_ROLLER_FREE_CURRENT_AMPS = 5.0;
   }
 
   // Uprighter
@@ -51,6 +69,16 @@ public final class Constants {
     public static final double ARM_DEFAULT_I = 0.02;
     public static final double ARM_DEFAULT_D = 0.0;
     public static final Constraints ARM_MOTION_CONSTRAINTS = new Constraints(0.66, 0.66);
+    // The arm has arrived when it is this close to the goal and nearly still.
+    public static final double ARM_POSITION_TOLERANCE = 0.05; // radians
+    public static final double ARM_VELOCITY_TOLERANCE = 0.1; // radians per second
+    // Cap on an auto arm move, in case the arm never settles. The longest
+    // profile (home to POSITION_03) takes about 6.2s.
+    public static final double ARM_MOVE_TIMEOUT_SECONDS = 7.0;
+
+    // Simulation only
+    public static final double SIM_ARM_LENGTH_METERS = 0.9;
+    public static final double SIM_ARM_MASS_KG = 4.0;
   }
 
   // Gripper/Pincher (End Effector)
@@ -90,13 +118,41 @@ public final class Constants {
     public static final double MAX_METERS_PER_SECOND = 4.8;
     public static final double MAX_ANGULAR_SPEED = 2 * Math.PI;
 
-    public static final double ROTATIONAL_SLEW_RATE = 2.0; // percent per second (1 = 100%)
+    // Setpoint generator limits. The angular acceleration matches the old
+    // rotational slew rate (2 x max angular speed per second).
+    public static final boolean SETPOINT_GENERATOR_ENABLED = true;
+    public static final double MAX_ACCELERATION = 7.0; // m/s^2, about what the wheels hold on carpet
+    public static final double MAX_ANGULAR_ACCELERATION = 4 * Math.PI; // rad/s^2
+    public static final double MAX_MODULE_ACCELERATION = 9.0; // m/s^2, per module
+    public static final double MAX_STEER_RATE = Math.toRadians(720.0); // rad/s, MAXSwerve azimuth
+    public static final double STOPPED_MODULE_SPEED = 0.05; // m/s, below this a module keeps its angle
 
-    public static final SwerveDriveKinematics SWERVE_DRIVE_KINEMATICS = new SwerveDriveKinematics(
+    // Heading controller (heading hold and snap to angle)
+    public static final boolean HEADING_HOLD_ENABLED = true;
+    public static final double HEADING_P = 4.0; // (rad/s) per rad
+    public static final double HEADING_D = 0.2; // (rad/s) per (rad/s), on the gyro rate
+    public static final Constraints HEADING_CONSTRAINTS = new Constraints(1.5 * Math.PI, 4 * Math.PI); // rad/s, /s^2
+    public static final double HEADING_TOLERANCE_DEGREES = 2.0;
+    public static final double HEADING_RATE_TOLERANCE_DEGREES_PER_SECOND = 10.0;
+    public static final double HEADING_HOLD_CAPTURE_RATE_DEGREES_PER_SECOND = 30.0; // hold once turning slows
+
+    // High-rate odometry sampler
+    public static final boolean HIGH_RATE_ODOMETRY_ENABLED = true;
+    public static final double ODOMETRY_FREQUENCY_HZ = 200.0;
+    public static final int ODOMETRY_BUFFER_CAPACITY = 64; // samples (~320ms at 200Hz)
+
+    // Module order: front left, front right, rear left, rear right.
+    public static final Translation2d[] MODULE_TRANSLATIONS = {
         new Translation2d(DRIVETRAIN_LENGTH / 2, DRIVETRAIN_WIDTH / 2),
         new Translation2d(DRIVETRAIN_LENGTH / 2, -DRIVETRAIN_WIDTH / 2),
         new Translation2d(-DRIVETRAIN_LENGTH / 2, DRIVETRAIN_WIDTH / 2),
-        new Translation2d(-DRIVETRAIN_LENGTH / 2, -DRIVETRAIN_WIDTH / 2));
+        new Translation2d(-DRIVETRAIN_LENGTH / 2, -DRIVETRAIN_WIDTH / 2) };
+
+    // WPILib kinematics, for trajectory generation and PathPlanner.
+    public static final SwerveDriveKinematics SWERVE_DRIVE_KINEMATICS = new SwerveDriveKinematics(
+        MODULE_TRANSLATIONS);
+    // Allocation-free kinematics for the drive and odometry.
+    public static final SwerveKinematics SWERVE_KINEMATICS = new SwerveKinematics(MODULE_TRANSLATIONS);
   }
 
   // REV MAXSwerve Modules
@@ -120,6 +176,149 @@ public final class Constants {
 
     public static final int DRIVING_MOTOR_CURRENT_LIMIT = 24; // amps
     public static final int TURNING_MOTOR_CURRENT_LIMIT = 12; // amps
+
+    // 45 teeth on the driving wheel's bevel gear.
+    // 22 teeth on the first-stage spur gear.
+    // 15 teeth on the bevel pinion.
+    public static final double DRIVING_MOTOR_REDUCTION = (45.0 * 22) / (DRIVING_MOTOR_PINION_TEETH * 15);
+    public static final double WHEEL_CIRCUMFERENCE_IN_METERS = WHEEL_DIAMETER_IN_METERS * Math.PI;
+    public static final double DRIVE_WHEEL_FREE_SPEED_MPS = (DRIVING_MOTOR_FREE_SPIN_RPM / 60
+        * WHEEL_CIRCUMFERENCE_IN_METERS) / DRIVING_MOTOR_REDUCTION;
+
+    // Scale the drive speed by the cosine of the azimuth error, so a module
+    // that is still turning does not push the robot sideways.
+    public static final boolean COSINE_COMPENSATION_ENABLED = true;
+    // Below this speed, keep the last azimuth setpoint instead of re-aiming.
+    public static final boolean ANGLE_HOLD_ENABLED = true;
+    public static final double ANGLE_HOLD_SPEED = 0.03; // m/s
+
+    // Simulation only
+    public static final double TURNING_MOTOR_REDUCTION = 9424.0 / 203.0; // MAXSwerve azimuth
+    public static final double SIM_DRIVE_MOI = 0.025; // kg m^2, reflected robot mass per module
+    public static final double SIM_TURN_MOI = 0.004; // kg m^2
+  }
+
+  // Vision (PhotonVision AprilTags) and Pose Estimation
+  public static final class VisionConstants {
+    public static final String CAMERA_NAME = "Microsoft_LifeCam_HD-3000";
+
+    // TODO: PLACEHOLDER camera position relative to the robot center. Measure
+    // the mount (x forward, y left, z up from the robot center on the floor,
+    // and the camera roll/pitch/yaw) before enabling pose correction.
+    public static final Transform3d ROBOT_TO_CAMERA = new Transform3d(
+        new Translation3d(0.0, 0.0, 0.5),
+        new Rotation3d(0.0, 0.0, 0.0));
+    // A wrong ROBOT_TO_CAMERA biases every corrected pose, so AprilTag poses
+    // are not fused into odometry until the mount has been measured.
+    public static final boolean VISION_POSE_CORRECTION_ENABLED = false;
+
+    // Trust in odometry vs. vision (x meters, y meters, theta radians).
+    public static final double[] STATE_STD_DEVS = { 0.1, 0.1, 0.1 };
+    public static final double[] VISION_STD_DEVS = { 0.9, 0.9, 0.9 };
+
+    public static final double POSE_HISTORY_SECONDS = 1.5;
+    public static final int POSE_HISTORY_CAPACITY = 512; // 1.5s at 200Hz with headroom
+
+    public static final double MAX_POSE_AMBIGUITY = 0.2;
+    public static final double MAX_TAG_DISTANCE_METERS = 4.0;
+
+    public static final double RESULT_TIMEOUT_SECONDS = 0.5; // older results are stale
+  }
+
+  // Game Piece Vision (ML coprocessor)
+  public static final class GamePieceVisionConstants {
+    public static final String TABLE_NAME = "Vision";
+    public static final String DETECTIONS_TOPIC = "Detections";
+
+    // Packed frame: [captureTimeMicros, frameId, count, then per detection:
+    // classId, confidence, xMin, yMin, xMax, yMax, distanceMeters]
+    public static final int FRAME_HEADER_LENGTH = 3;
+    public static final int DETECTION_LENGTH = 7;
+    public static final int MAX_DETECTIONS = 8;
+    public static final int FRAME_QUEUE_DEPTH = 8; // frames buffered between robot loops
+
+    public static final int CUBE_CLASS_ID = 0;
+    public static final int CONE_CLASS_ID = 1;
+
+    public static final int IMAGE_WIDTH = 160;
+    public static final int IMAGE_HEIGHT = 120;
+
+    public static final double MIN_CONFIDENCE = 0.5;
+    public static final double FRAME_TIMEOUT_SECONDS = 0.25; // older frames are stale
+
+    // Tracker (image pixels)
+    public static final int MAX_TRACKS = 8;
+    public static final double TRACK_MEASUREMENT_NOISE = 4.0; // px
+    public static final double TRACK_PROCESS_NOISE = 150.0; // px/s^2
+    public static final double TRACK_INITIAL_VELOCITY_STD_DEV = 80.0; // px/s
+    public static final double TRACK_GATE = 9.21; // chi-squared, 2 DOF, 99%
+    public static final double TRACK_SIZE_SMOOTHING = 0.3;
+    public static final double TRACK_INITIAL_CONFIDENCE_SCALE = 0.5;
+    public static final double TRACK_CONFIDENCE_GAIN = 0.5;
+    public static final double TRACK_CONFIDENCE_DECAY = 0.7; // per missed frame
+    public static final double MIN_TRACK_CONFIDENCE = 0.15;
+    public static final int TRACK_CONFIRM_HITS = 3;
+    public static final double TRACK_TIMEOUT_SECONDS = 0.5;
+
+    // ML camera, for projecting detections onto the floor. Positive pitch looks
+    // down. TODO: PLACEHOLDER intrinsics and mount. Calibrate the camera (focal
+    // lengths and principal point at IMAGE_WIDTH x IMAGE_HEIGHT) and measure
+    // ROBOT_TO_ML_CAMERA before setting ML_CAMERA_CALIBRATED.
+    public static final double ML_CAMERA_FX = 130.0; // px
+    public static final double ML_CAMERA_FY = 130.0; // px
+    public static final double ML_CAMERA_CX = IMAGE_WIDTH / 2.0;
+    public static final double ML_CAMERA_CY = IMAGE_HEIGHT / 2.0;
+    public static final Transform3d ROBOT_TO_ML_CAMERA = new Transform3d(
+        new Translation3d(0.3, 0.0, 0.4),
+        new Rotation3d(0.0, Math.toRadians(20.0), 0.0));
+    // Everything that goes through the projection above (the field map and
+    // metric cube pickup) stays off until the ML camera is calibrated.
+    public static final boolean ML_CAMERA_CALIBRATED = false;
+
+    // Field map of game pieces.
+    public static final double GAME_PIECE_RADIUS_METERS = 0.12;
+    public static final double MAX_PROJECTION_RANGE_METERS = 4.0;
+    public static final int MAX_MAPPED_PIECES = 8;
+    public static final double MAP_MATCH_RADIUS_METERS = 0.5;
+    public static final double MAP_POSITION_SMOOTHING = 0.5;
+    public static final int MAP_CONFIRM_OBSERVATIONS = 2;
+    public static final double MAP_TIMEOUT_SECONDS = 3.0;
+
+    // Where a game piece should end up relative to the robot center when
+    // picking it up (just inside the intake).
+    public static final double PICKUP_DISTANCE_METERS = 0.5;
+    // Uncalibrated pickup: drive output per pixel the cube is off the bottom
+    // center of the image.
+    public static final double IMAGE_STEER_GAIN = 0.006;
+  }
+
+  // Holonomic alignment (drive to a pose relative to a target)
+  public static final class AlignConstants {
+    public static final double TRANSLATION_P = 2.5; // (m/s) per m
+    public static final double TRANSLATION_I = 0.0;
+    public static final double TRANSLATION_D = 0.0;
+    public static final Constraints TRANSLATION_CONSTRAINTS = new Constraints(2.0, 3.0); // m/s, m/s^2
+
+    public static final double ROTATION_P = 3.0; // (rad/s) per rad
+    public static final double ROTATION_I = 0.0;
+    public static final double ROTATION_D = 0.0;
+    public static final Constraints ROTATION_CONSTRAINTS = new Constraints(Math.PI, 2 * Math.PI); // rad/s, rad/s^2
+
+    public static final double TRANSLATION_TOLERANCE_METERS = 0.05;
+    public static final double ROTATION_TOLERANCE_RADIANS = Math.toRadians(2.0);
+    public static final double TRANSLATION_VELOCITY_TOLERANCE = 0.1; // m/s
+    public static final double ROTATION_VELOCITY_TOLERANCE = Math.toRadians(10.0); // rad/s
+
+    // The charge station tips under the robot, so balance approaches slowly.
+    public static final double BALANCE_TRANSLATION_P = 1.9;
+    public static final Constraints BALANCE_TRANSLATION_CONSTRAINTS = new Constraints(1.0, 1.5);
+    public static final double BALANCE_TOLERANCE_METERS = 0.1;
+    public static final double BALANCE_LEVEL_DEGREES = 2.5; // pitch and roll
+    public static final double BALANCE_SETTLE_SECONDS = 0.5;
+
+    // AlignToAprilTag goal: the tag's position in the camera frame.
+    public static final double APRILTAG_ALIGN_X_METERS = 0.8;
+    public static final double APRILTAG_ALIGN_Y_METERS = -0.1;
   }
 
   // Autonomous Constants
@@ -128,4 +327,17 @@ public final class Constants {
     public static final double APRILTAG_TO_END_OF_COMMUNITY_METERS = 3.9;
   }
 
+  // PathPlanner path constraints (m/s, m/s^2). Every path is compiled for each
+  // of these at build time, see TrajectoryCompiler.
+  public static final class AutoPathConstants {
+    public static final PathConstraints MAYHEM_PATH_CONSTRAINTS = new PathConstraints(4.0, 3.0);
+    public static final PathConstraints ELECTRIC_PATH_CONSTRAINTS = new PathConstraints(2.0, 2.0);
+    public static final PathConstraints ELECTRIC_ONE_CUBE_PATH_CONSTRAINTS = new PathConstraints(2.0, 3.0);
+    public static final PathConstraints[] COMPILED_PATH_CONSTRAINTS = { MAYHEM_PATH_CONSTRAINTS,
+        ELECTRIC_PATH_CONSTRAINTS, ELECTRIC_ONE_CUBE_PATH_CONSTRAINTS };
+
+    // Under the deploy directory.
+    public static final String COMPILED_TRAJECTORY_DIRECTORY = "trajectories";
+  }
+
 }
@@ -1,8 +1,12 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.event.EventLoop;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.LazyOutput;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.TrajectoryCache;
 
 /**
  * The Robot class extends TimedRobot. TimedRobot implements the
@@ -16,15 +20,51 @@ public class Robot extends TimedRobot {
   private Command autonomousCommand;
   private RobotContainer robotContainer;
 
+  // Loop phase timings.
+  private final LoopProfiler.Phase loopPhase = LoopProfiler.phase("Robot Periodic");
+  private final LoopProfiler.Phase readSensorsPhase = LoopProfiler.phase("Read Sensors");
+  private final LoopProfiler.Phase buttonsPhase = LoopProfiler.phase("Button Polling");
+  private final LoopProfiler.Phase schedulerPhase = LoopProfiler.phase("Scheduler Run");
+  private final LoopProfiler.Phase pitchRollPhase = LoopProfiler.phase("Test Pitch Roll");
+  private EventLoop buttonLoop;
+
   @Override
   public void robotInit() {
+    TrajectoryCache.markRobotStart();
     robotContainer = new RobotContainer();
+
+    // Poll the button bindings ourselves so they can be timed separately from
+    // the scheduler, and time every command's execute().
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    buttonLoop = scheduler.getDefaultButtonLoop();
+    scheduler.setActiveButtonLoop(new EventLoop());
+    scheduler.onCommandExecute(LoopProfiler::onCommandExecute);
   }
 
   @Override
   public void robotPeriodic() {
+    loopPhase.begin();
+
+    // Read every sensor once before any subsystem or command runs.
+    readSensorsPhase.begin();
+    robotContainer.readSensors();
+    readSensorsPhase.end();
+
+    buttonsPhase.begin();
+    buttonLoop.poll();
+    buttonsPhase.end();
+
+    schedulerPhase.begin();
     CommandScheduler.getInstance().run();
+    schedulerPhase.end();
+
+    pitchRollPhase.begin();
     robotContainer.swerveDrive.testPitchRoll();
+    pitchRollPhase.end();
+
+    LazyOutput.publishAll();
+    loopPhase.end();
+    LoopProfiler.publishAll();
   }
 
   @Override
@@ -33,6 +73,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void disabledPeriodic() {
+    robotContainer.prepareAutonomousCommand();
   }
 
   @Override
@@ -1,7 +1,9 @@
 package frc.robot;
 
+import java.util.function.Supplier;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.shuffleboard.ComplexWidget;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
@@ -16,9 +18,14 @@ import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import frc.robot.autos.*;
 import frc.robot.commands.*;
+import frc.robot.Constants.CANID;
 import frc.robot.subsystems.*;
+import frc.robot.subsystems.io.*;
+import frc.robot.util.SparkMaxStatusProfile;
+import frc.robot.util.TrajectoryCache;
 import static frc.robot.Constants.ArmConstants.*;
 import static frc.robot.Constants.IntakeConstants.*;
+import static frc.robot.Constants.SwerveDriveConstants.ODOMETRY_FREQUENCY_HZ;
 
 public class RobotContainer {
 
@@ -28,6 +35,8 @@ public class RobotContainer {
   public final Arm arm;
   public final Intake intake;
   public final Uprighter uprighter;
+  public final Vision vision;
+  public final GamePieceVision gamePieceVision;
 
   // Shuffleboard
   ShuffleboardTab walterTab;
@@ -43,17 +52,44 @@ public class RobotContainer {
   public static XboxController driverRumbler;
   public static XboxController operatorRumbler;
 
-  // Autonomous Chooser
-  public static SendableChooser<Command> autoChooser;
+  // Autonomous Chooser. Autos are built on demand; the selected one is built
+  // ahead of time while the robot is disabled.
+  public static SendableChooser<Supplier<Command>> autoChooser;
+  private Supplier<Command> preparedAutoSupplier;
+  private Command preparedAuto;
 
   public RobotContainer() {
 
-    // Instantiate all subsystems
-    swerveDrive = new SwerveDrive();
-    intake = new Intake();
-    gripper = new Gripper();
-    uprighter = new Uprighter();
-    arm = new Arm();
+    // Instantiate all subsystems on the robot hardware, or on simulated
+    // hardware when running on a desktop.
+    if (RobotBase.isReal()) {
+      swerveDrive = new SwerveDrive(
+          new SwerveModuleIOSparkMax(CANID.FRONT_LEFT_DRIVING_SPARKMAX, CANID.FRONT_LEFT_TURNING_SPARKMAX),
+          new SwerveModuleIOSparkMax(CANID.FRONT_RIGHT_DRIVING_SPARKMAX, CANID.FRONT_RIGHT_TURNING_SPARKMAX),
+          new SwerveModuleIOSparkMax(CANID.REAR_LEFT_DRIVING_SPARKMAX, CANID.REAR_LEFT_TURNING_SPARKMAX),
+          new SwerveModuleIOSparkMax(CANID.REAR_RIGHT_DRIVING_SPARKMAX, CANID.REAR_RIGHT_TURNING_SPARKMAX),
+          new GyroIONavX((byte) ODOMETRY_FREQUENCY_HZ));
+      intake = new Intake(new IntakeIOSparkMax());
+      gripper = new Gripper(new GripperIOSparkMax());
+      uprighter = new Uprighter(new UprighterIOSparkMax());
+      arm = new Arm(new ArmIOSparkMax());
+    } else {
+      swerveDrive = new SwerveDrive(
+          new SwerveModuleIOSim(),
+          new SwerveModuleIOSim(),
+          new SwerveModuleIOSim(),
+          new SwerveModuleIOSim(),
+          new GyroIOSim());
+      intake = new Intake(new IntakeIOSim());
+      gripper = new Gripper(new GripperIOSim());
+      uprighter = new Uprighter(new UprighterIOSim());
+      arm = new Arm(new ArmIOSim());
+    }
+    vision = new Vision(swerveDrive);
+    gamePieceVision = new GamePieceVision(swerveDrive);
+
+    // Report the estimated CAN bus load of the SparkMax status frames.
+    SparkMaxStatusProfile.reportBusLoad();
 
     // OI (Operator Interface) Controllers & Rumblers
     driverOI = new CommandXboxController(1);
@@ -68,7 +104,7 @@ public class RobotContainer {
     configureButtonBindings();
 
     // Configure autonomous chooser and Shuffleboard
-    autoChooser = new SendableChooser<Command>();
+    autoChooser = new SendableChooser<Supplier<Command>>();
     configureAutoChooser();
 
     // Configure the Shuffleboard
@@ -83,9 +119,10 @@ public class RobotContainer {
   private void configureButtonBindings() {
 
     // DRIVER Left & Right Stick: Translational and rotational robot movement.
+    // Holds the heading while the right stick is centered.
     swerveDrive.setDefaultCommand(
         new RunCommand(
-            () -> swerveDrive.drive(
+            () -> swerveDrive.driveWithHeading(
                 -MathUtil.applyDeadband(driverOI.getLeftY(), 0.05),
                 -MathUtil.applyDeadband(driverOI.getLeftX(), 0.05),
                 -MathUtil.applyDeadband(driverOI.getRightX(), 0.05),
@@ -106,7 +143,8 @@ public class RobotContainer {
         .onFalse(new InstantCommand(() -> intake.open(), intake));
 
     // DRIVER Left Bumper: While held, pick up cube with machine learning.
-    driverOI.leftBumper().whileTrue(new MLCubePickup(swerveDrive).raceWith(new DeployIntake(intake, uprighter)));
+    driverOI.leftBumper()
+        .whileTrue(new MLCubePickup(swerveDrive, gamePieceVision).raceWith(new DeployIntake(intake, uprighter)));
 
     // DRIVER POV/D-Pad: Nudge (Left, Right, Up, Down) relative to the robot.
     driverOI.povUp().whileTrue(new NudgeRobot(swerveDrive, "NUDGE FORWARD").withTimeout(0.5));
@@ -155,10 +193,10 @@ public class RobotContainer {
     operatorOI.a().onTrue(new InstantCommand(() -> arm.setTargetPosition(POSITION_03)));
 
     // OPERATOR POV Down: Align to AprilTag
-    operatorOI.povDown().whileTrue(new AlignToAprilTag(swerveDrive));
+    operatorOI.povDown().whileTrue(new AlignToAprilTag(swerveDrive, vision));
 
     // OPERATOR Back Button: Display distance values for balance calibration.
-    operatorOI.back().whileTrue(new DistanceValues());
+    operatorOI.back().whileTrue(new DistanceValues(vision));
 
     // OPERATOR Start Button: Reset max Pitch/Roll on the dashboard.
     operatorOI.start().whileTrue(new InstantCommand(() -> swerveDrive.resetMaxPitchRoll()));
@@ -166,28 +204,76 @@ public class RobotContainer {
   }
 
   /**
-   * Configure the autonomous chooser.
+   * Reads every sensor once at the start of the cycle so all subsystems and
+   * commands see consistent values from the same instant.
+   */
+  public void readSensors() {
+    swerveDrive.readSensors();
+    arm.readSensors();
+    gripper.readSensors();
+    intake.readSensors();
+    vision.readSensors();
+    gamePieceVision.readSensors();
+  }
+
+  /**
+   * Configure the autonomous chooser. Paths start loading in the background
+   * here; the autos themselves are only built once selected.
    */
   public void configureAutoChooser() {
-    autoChooser.setDefaultOption("Default: Do Nothing", new WaitCommand(0));
-    autoChooser.addOption("Mayhem: One Cube", new MayhemOneCube(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Mayhem: Two Cube", new MayhemTwoCube(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Charging: Balance", new ChargingBalance(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Charging: Community", new ChargingCommunity(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Electric: One Cube", new ElectricOneCube(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Electric: Two Cube", new ElectricTwoCube(swerveDrive, intake, uprighter, gripper, arm));
-    autoChooser.addOption("Shoot High Dumbo", new ShootHigh(swerveDrive, intake, uprighter, gripper));
-    // autoChooser.addOption("ML Pickup", new MLPickup(swerveDrive, intake,
-    // uprighter, gripper, arm));
+    MayhemOneCube.preloadPaths();
+    MayhemTwoCube.preloadPaths();
+    ElectricOneCube.preloadPaths();
+    ElectricTwoCube.preloadPaths();
+
+    autoChooser.setDefaultOption("Default: Do Nothing", () -> new WaitCommand(0));
+    autoChooser.addOption("Mayhem: One Cube",
+        () -> new MayhemOneCube(swerveDrive, intake, uprighter, gripper, arm, gamePieceVision));
+    autoChooser.addOption("Mayhem: Two Cube",
+        () -> new MayhemTwoCube(swerveDrive, intake, uprighter, gripper, arm, vision, gamePieceVision));
+    autoChooser.addOption("Charging: Balance",
+        () -> new ChargingBalance(swerveDrive, intake, uprighter, gripper, arm, vision));
+    autoChooser.addOption("Charging: Community",
+        () -> new ChargingCommunity(swerveDrive, intake, uprighter, gripper, arm, vision));
+    autoChooser.addOption("Electric: One Cube",
+        () -> new ElectricOneCube(swerveDrive, intake, uprighter, gripper, arm, gamePieceVision));
+    autoChooser.addOption("Electric: Two Cube",
+        () -> new ElectricTwoCube(swerveDrive, intake, uprighter, gripper, arm, vision, gamePieceVision));
+    autoChooser.addOption("Shoot High Dumbo", () -> new ShootHigh(swerveDrive, intake, uprighter, gripper));
+    // autoChooser.addOption("ML Pickup", () -> new MLPickup(swerveDrive, intake,
+    // uprighter, gripper, arm, vision, gamePieceVision));
 
     SmartDashboard.putData(RobotContainer.autoChooser);
   }
 
+  /**
+   * Builds the selected auto ahead of time, once its paths have loaded, so
+   * autonomousInit() does not have to. Call while disabled.
+   */
+  public void prepareAutonomousCommand() {
+    TrajectoryCache.publish();
+    Supplier<Command> selected = autoChooser.getSelected();
+    if (selected != preparedAutoSupplier && TrajectoryCache.isReady()) {
+      preparedAuto = selected != null ? selected.get() : null;
+      preparedAutoSupplier = selected;
+    }
+    SmartDashboard.putBoolean("Auto/Selected Auto Ready", selected == preparedAutoSupplier);
+  }
+
   /**
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
-    return autoChooser.getSelected();
+    Supplier<Command> selected = autoChooser.getSelected();
+    if (selected != preparedAutoSupplier) {
+      preparedAuto = selected != null ? selected.get() : null;
+    }
+    Command auto = preparedAuto;
+
+    // Build a fresh command next time, since autos capture state when built.
+    preparedAutoSupplier = null;
+    preparedAuto = null;
+    return auto;
   }
 
 }
@@ -0,0 +1,68 @@
+package frc.robot.autos;
+
+import java.util.HashMap;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import frc.robot.subsystems.*;
+import static frc.robot.Constants.ArmConstants.*;
+
+/**
+ * Named commands for PathPlanner event markers. Markers with these names in
+ * the .path files run the command in parallel with the path, so mechanisms
+ * move while the robot drives.
+ *
+ * Marker commands hold up the end of the path until they finish, so every
+ * command here finishes on its own.
+ *
+ * Only steps that can overlap travel belong here. The autos score with the
+ * intake after aligning on the AprilTag at the end of the path, so scoring
+ * stays after the path.
+ */
+public final class AutoEvents {
+
+  /** Lowers and opens the intake and starts the rollers; DeployIntake takes over after the path. */
+  public static final String DEPLOY_INTAKE = "deployIntake";
+
+  /** Raises the intake, stops the rollers and moves the arm home. */
+  public static final String STOW = "stow";
+
+  private AutoEvents() {
+  }
+
+  /**
+   * Creates the event map for a SwerveAutoBuilder. Call once per auto, since a
+   * command instance can only be in one composition.
+   * 
+   * @return the event map.
+   */
+  public static HashMap<String, Command> create(Intake intake, Uprighter uprighter, Arm arm) {
+    HashMap<String, Command> eventMap = new HashMap<>();
+
+    eventMap.put(DEPLOY_INTAKE, new InstantCommand(() -> {
+      intake.lower();
+      intake.open();
+      intake.spinIn();
+      uprighter.spinIn();
+    }, intake, uprighter));
+
+    eventMap.put(STOW, new InstantCommand(() -> {
+      intake.raise();
+      intake.stop();
+      uprighter.stop();
+    }, intake, uprighter).alongWith(moveArm(arm, POSITION_00)));
+
+    return eventMap;
+  }
+
+  /**
+   * Moves the arm along its motion profile to a position, until it has
+   * settled there. Autos require the arm, so its default command does not run
+   * and this drives the profile.
+   */
+  private static Command moveArm(Arm arm, double position) {
+    return new FunctionalCommand(() -> arm.setTargetPosition(position), arm::runAutomatic, interrupted -> {
+    }, arm::isAtTarget, arm).withTimeout(ARM_MOVE_TIMEOUT_SECONDS);
+  }
+
+}
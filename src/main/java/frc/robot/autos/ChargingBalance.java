@@ -15,21 +15,26 @@ public class ChargingBalance extends SequentialCommandGroup {
   Uprighter uprighter;
   Gripper gripper;
   Arm arm;
+  Vision vision;
 
-  public ChargingBalance(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm) {
+  public ChargingBalance(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm,
+      Vision _vision) {
 
     swerveDrive = _swerveDrive;
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     arm = _arm;
+    vision = _vision;
 
     addRequirements(swerveDrive, intake, gripper, arm, uprighter);
 
     addCommands(new RunCommand(() -> uprighter.spinOut(), intake).withTimeout(0.5),
-        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED).withTimeout(0.5),
-        new BalanceRobot(swerveDrive, APRILTAG_TO_CHARGE_STATION_METERS).withTimeout(9),
-        new InstantCommand(() -> swerveDrive.setGyroAngleAdjustment(180.0)));
+        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED, PIECE_SENSING_ENABLED).withTimeout(0.5),
+        new BalanceRobot(swerveDrive, vision, APRILTAG_TO_CHARGE_STATION_METERS).withTimeout(9),
+        new InstantCommand(() -> swerveDrive.setGyroAngleAdjustment(180.0)),
+        // Stay locked on the charge station for the rest of auto.
+        new RunCommand(() -> swerveDrive.setWheelsToXFormation(), swerveDrive));
 
   }
 
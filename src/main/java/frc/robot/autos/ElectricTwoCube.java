@@ -1,57 +1,74 @@
 package frc.robot.autos;
 
-import java.util.HashMap;
-import com.pathplanner.lib.PathPlanner;
 import com.pathplanner.lib.PathPlannerTrajectory;
 import com.pathplanner.lib.auto.PIDConstants;
-import com.pathplanner.lib.auto.SwerveAutoBuilder;
 import com.pathplanner.lib.PathConstraints;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import frc.robot.commands.*;
 import frc.robot.subsystems.*;
+import frc.robot.util.TrajectoryCache;
 import static frc.robot.Constants.SwerveDriveConstants.*;
+import static frc.robot.Constants.AutoPathConstants.*;
 import static frc.robot.Constants.IntakeConstants.*;
+import static frc.robot.Constants.VisionConstants.VISION_POSE_CORRECTION_ENABLED;
 
 public class ElectricTwoCube extends SequentialCommandGroup {
 
+  private static final PathConstraints PATH_CONSTRAINTS = ELECTRIC_PATH_CONSTRAINTS;
+
+  /**
+   * Starts loading this auto's paths in the background.
+   */
+  public static void preloadPaths() {
+    TrajectoryCache.preload("ElectricForward", PATH_CONSTRAINTS);
+    TrajectoryCache.preload("ElectricBackward", PATH_CONSTRAINTS);
+  }
+
   SwerveDrive swerveDrive;
   Intake intake;
   Uprighter uprighter;
   Gripper gripper;
   Arm arm;
+  Vision vision;
+  GamePieceVision gamePieceVision;
 
-  public ElectricTwoCube(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm) {
+  public ElectricTwoCube(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm,
+      Vision _vision, GamePieceVision _gamePieceVision) {
 
     swerveDrive = _swerveDrive;
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     arm = _arm;
+    vision = _vision;
+    gamePieceVision = _gamePieceVision;
 
     addRequirements(swerveDrive, intake, gripper, arm, uprighter);
 
-    PathPlannerTrajectory forward = PathPlanner.loadPath("ElectricForward", new PathConstraints(2, 2));
-    PathPlannerTrajectory backward = PathPlanner.loadPath("ElectricBackward", new PathConstraints(2, 2));
+    PathPlannerTrajectory forward = TrajectoryCache.get("ElectricForward", PATH_CONSTRAINTS);
+    PathPlannerTrajectory backward = TrajectoryCache.get("ElectricBackward", PATH_CONSTRAINTS);
 
-    SwerveAutoBuilder autoBuilder = new SwerveAutoBuilder(swerveDrive::getPose, swerveDrive::resetOdometry,
-        SWERVE_DRIVE_KINEMATICS, new PIDConstants(3.0, 0.0, 0.0), new PIDConstants(0.5, 0.0, 0.0),
-        swerveDrive::setModuleStates, new HashMap<String, Command>(), true, swerveDrive);
+    SwerveDriveAutoBuilder autoBuilder = new SwerveDriveAutoBuilder(swerveDrive, new PIDConstants(3.0, 0.0, 0.0),
+        new PIDConstants(0.5, 0.0, 0.0), AutoEvents.create(intake, uprighter, arm), true);
 
     addCommands(new RunCommand(() -> uprighter.spinOut(), intake).withTimeout(0.5),
-        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED).withTimeout(0.5),
+        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED, PIECE_SENSING_ENABLED).withTimeout(0.5),
         autoBuilder.resetPose(forward),
-        autoBuilder.followPath(forward),
+        autoBuilder.followPathWithEvents(forward),
         new RotateRobot(swerveDrive, 180.0).withTimeout(2),
-        new MLCubePickup(swerveDrive).withTimeout(1.5).raceWith(new DeployIntake(intake, uprighter)),
+        new MLCubePickup(swerveDrive, gamePieceVision).withTimeout(1.5)
+            .raceWith(new DeployIntake(intake, uprighter, PIECE_SENSING_ENABLED)),
         new RotateRobot(swerveDrive, 0.0).withTimeout(2),
         new TurnMet(_swerveDrive, 0.0, swerveDrive.getYaw()),
         autoBuilder.resetPose(backward),
-        autoBuilder.followPath(backward),
-        new AlignToAprilTag(swerveDrive).withTimeout(2),
-        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED).withTimeout(2),
+        autoBuilder.followPathWithEvents(backward),
+        // The tag layout pose is only reachable on odometry once vision
+        // corrects it, until then steer on the live tag measurement.
+        VISION_POSE_CORRECTION_ENABLED ? new DriveToPose(swerveDrive, vision::getAlignPose).withTimeout(2)
+            : new AlignToAprilTag(swerveDrive, vision).withTimeout(2),
+        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED, PIECE_SENSING_ENABLED).withTimeout(2),
         new InstantCommand(() -> swerveDrive.setGyroAngleAdjustment(180.0)));
 
   }
@@ -32,7 +32,7 @@ public class ShootHigh extends SequentialCommandGroup {
     gripper = _gripper;
 
     addCommands(new RunCommand(() -> uprighter.spinOut(), intake).withTimeout(1),
-        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED).withTimeout(1),
+        new OuttakeCube(intake, uprighter, gripper, OUTTAKE_HIGH_SPEED, PIECE_SENSING_ENABLED).withTimeout(1),
         new InstantCommand(() -> swerveDrive.setGyroAngleAdjustment(180.0)));
 
   }
@@ -0,0 +1,46 @@
+package frc.robot.autos;
+
+import java.util.Map;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.auto.PIDConstants;
+import com.pathplanner.lib.auto.SwerveAutoBuilder;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.commands.FollowTrajectory;
+import frc.robot.subsystems.SwerveDrive;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+
+/**
+ * SwerveAutoBuilder for our SwerveDrive that follows paths with
+ * FollowTrajectory instead of PPSwerveControllerCommand. Events, pose resets
+ * and the alliance mirroring work as in SwerveAutoBuilder.
+ */
+public class SwerveDriveAutoBuilder extends SwerveAutoBuilder {
+
+  private final SwerveDrive swerveDrive;
+  private final PIDConstants translationConstants;
+  private final PIDConstants rotationConstants;
+  private final boolean mirrorForAlliance;
+
+  public SwerveDriveAutoBuilder(SwerveDrive _swerveDrive, PIDConstants _translationConstants,
+      PIDConstants _rotationConstants, Map<String, Command> eventMap, boolean useAllianceColor) {
+    super(_swerveDrive::getPose, _swerveDrive::resetOdometry, SWERVE_DRIVE_KINEMATICS, _translationConstants,
+        _rotationConstants, _swerveDrive::setModuleStates, eventMap, useAllianceColor, _swerveDrive);
+    swerveDrive = _swerveDrive;
+    translationConstants = _translationConstants;
+    rotationConstants = _rotationConstants;
+    mirrorForAlliance = useAllianceColor;
+  }
+
+  @Override
+  public CommandBase followPath(PathPlannerTrajectory trajectory) {
+    return new FollowTrajectory(swerveDrive, trajectory, mirrorForAlliance, pid(translationConstants),
+        pid(translationConstants), pid(rotationConstants));
+  }
+
+  private static PIDController pid(PIDConstants constants) {
+    return new PIDController(constants.kP, constants.kI, constants.kD, constants.period);
+  }
+
+}
@@ -1,58 +1,61 @@
 package frc.robot.commands;
 
-import org.photonvision.PhotonCamera;
-import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.*;
+import frc.robot.util.HolonomicAlignController;
+import static frc.robot.Constants.AlignConstants.*;
 
 /**
- * Aligns the robot to the nearest AprilTag.
+ * Aligns the robot to the nearest AprilTag. Ends once the robot is in place and
+ * has settled.
  */
 public class AlignToAprilTag extends CommandBase {
 
   SwerveDrive swerveDrive;
-  PhotonCamera camera;
+  Vision vision;
 
-  public AlignToAprilTag(SwerveDrive _swerveDrive) {
+  private final HolonomicAlignController controller = new HolonomicAlignController();
+  private final double[] output = new double[3];
+  private boolean hasTarget = false;
+  private double targetX;
+  private double targetY;
+
+  public AlignToAprilTag(SwerveDrive _swerveDrive, Vision _vision) {
     swerveDrive = _swerveDrive;
+    vision = _vision;
     addRequirements(swerveDrive);
   }
 
   @Override
   public void initialize() {
-    camera = new PhotonCamera("Microsoft_LifeCam_HD-3000");
+    hasTarget = false;
   }
 
   @Override
   public void execute() {
 
-    double[] distance = getDistance();
-
-    double xDistance = distance[0];
-    double yDistance = distance[1];
-
-    PIDController xPID = new PIDController(1, 0, 0);
-    PIDController yPID = new PIDController(1, 0, 0);
-
-    xPID.setTolerance(0.05);
-    yPID.setTolerance(0.05);
-
-    double xPower = xPID.calculate(xDistance, 0.8);
-    xPower = xPower / 10 * 5;
+    if (!readTarget()) {
+      // Hold still until the tag comes back, then restart the profiles from
+      // wherever the robot is.
+      hasTarget = false;
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+      return;
+    }
 
-    double yPower = yPID.calculate(yDistance, -0.1);
-    yPower = yPower / 10 * 5;
+    // The robot's position relative to the tag, in the robot frame, is the
+    // negated camera to tag translation.
+    if (!hasTarget) {
+      controller.reset(-targetX, -targetY, 0.0);
+      hasTarget = true;
+    }
+    controller.calculate(-targetX, -targetY, 0.0, -APRILTAG_ALIGN_X_METERS, -APRILTAG_ALIGN_Y_METERS, 0.0, output);
 
-    if (!xPID.atSetpoint() && !yPID.atSetpoint()) {
-      swerveDrive.drive(-xPower, -yPower, 0.0, true);
-    } else {
+    if (controller.atTranslationGoal()) {
       swerveDrive.drive(0.0, 0.0, 0.0, true);
+    } else {
+      swerveDrive.driveVelocity(output[0], output[1], 0.0, false);
     }
-
-    xPID.close();
-    yPID.close();
   }
 
   @Override
@@ -62,25 +65,22 @@ public class AlignToAprilTag extends CommandBase {
 
   @Override
   public boolean isFinished() {
-    return false;
+    return hasTarget && controller.atTranslationGoal();
   }
 
   /**
-   * Gets the distance of the robot from an apriltag
+   * Reads the position of the best AprilTag relative to the camera.
    * 
-   * @return the distance of the robot from the apriltag
+   * @return whether a fresh target was seen.
    */
-  public double[] getDistance() {
-    PhotonPipelineResult result = camera.getLatestResult();
-    if (result.hasTargets()) {
-      PhotonTrackedTarget target = result.getBestTarget();
-      double x = target.getBestCameraToTarget().getX();
-      double y = target.getBestCameraToTarget().getY();
-      double rot = target.getBestCameraToTarget().getRotation().toRotation2d().getDegrees();
-      double ambiguity = target.getPoseAmbiguity();
-      return new double[] { x, y, ambiguity, rot };
+  private boolean readTarget() {
+    PhotonTrackedTarget target = vision.getBestTarget();
+    if (target == null || !vision.isFresh()) {
+      return false;
     }
-    return new double[] { 0.0, 0.0, 100, 180 };
+    targetX = target.getBestCameraToTarget().getX();
+    targetY = target.getBestCameraToTarget().getY();
+    return true;
   }
 
 }
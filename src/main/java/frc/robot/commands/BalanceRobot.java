@@ -1,65 +1,99 @@
 package frc.robot.commands;
 
-import java.util.List;
-import org.photonvision.PhotonCamera;
-import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
-import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.*;
+import frc.robot.util.HolonomicAlignController;
+import frc.robot.util.Log;
+import static frc.robot.Constants.AlignConstants.*;
 
 /**
  * Sets the robot to a target distance from an AprilTag. Used for balancing.
+ * Ends once the robot has been at the distance and level for a moment, and
+ * leaves the wheels in an X so it stays put.
  */
 public class BalanceRobot extends CommandBase {
 
+  private static final Log.Site distanceLog = Log.site("BalanceRobot", Log.Level.INFO, 0.5);
+
   SwerveDrive swerveDrive;
-  PhotonCamera camera;
+  Vision vision;
   double prevDistance = 0.0;
 
   double targetDistance;
 
-  public BalanceRobot(SwerveDrive _swerveDrive, double _targetDistance) {
+  private final HolonomicAlignController controller = new HolonomicAlignController(BALANCE_TRANSLATION_P,
+      BALANCE_TRANSLATION_CONSTRAINTS, ROTATION_P, ROTATION_CONSTRAINTS);
+  private final double[] output = new double[3];
+  private Debouncer balancedDebouncer;
+  private boolean balanced = false;
+  private boolean fresh = false;
+
+  public BalanceRobot(SwerveDrive _swerveDrive, Vision _vision, double _targetDistance) {
     targetDistance = _targetDistance;
     swerveDrive = _swerveDrive;
+    vision = _vision;
+    controller.setTolerance(BALANCE_TOLERANCE_METERS, ROTATION_TOLERANCE_RADIANS);
     addRequirements(swerveDrive);
   }
 
   @Override
   public void initialize() {
-    camera = new PhotonCamera("Microsoft_LifeCam_HD-3000");
+    // The robot's position relative to the tag is the negated distance.
+    prevDistance = getDistance();
+    controller.reset(-prevDistance, 0.0, 0.0);
+    balancedDebouncer = new Debouncer(BALANCE_SETTLE_SECONDS);
+    balanced = false;
+    fresh = vision.isFresh();
   }
 
   @Override
   public void execute() {
+    if (!vision.isFresh()) {
+      // Hold still until the camera catches up, then restart the profile from
+      // wherever the robot is.
+      fresh = false;
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+      balanced = balancedDebouncer.calculate(false);
+      return;
+    }
+
     double distance = getDistance();
+    if (!fresh) {
+      controller.reset(-distance, 0.0, 0.0);
+      fresh = true;
+    }
     prevDistance = distance;
 
-    PIDController pidApriltag = new PIDController(1, 0, 0);
-
-    double powerApriltag = pidApriltag.calculate(distance, targetDistance);
-    powerApriltag = powerApriltag / 10 * 4;
-    pidApriltag.setTolerance(0.1);
+    controller.calculate(-distance, 0.0, 0.0, -targetDistance, 0.0, 0.0, output);
 
-    System.out.println("Distance:" + distance); // Useful for Calibration
+    distanceLog.log("Distance:", distance); // Useful for Calibration
 
-    if (pidApriltag.atSetpoint()) {
+    boolean atDistance = controller.atTranslationGoal();
+    if (atDistance) {
       swerveDrive.setWheelsToXFormation();
     } else {
-      swerveDrive.drive(-powerApriltag, 0, 0, true);
+      swerveDrive.driveVelocity(output[0], 0.0, 0.0, false);
     }
 
-    pidApriltag.close();
+    boolean level = Math.abs(swerveDrive.getPitch()) < BALANCE_LEVEL_DEGREES
+        && Math.abs(swerveDrive.getRoll()) < BALANCE_LEVEL_DEGREES;
+    balanced = balancedDebouncer.calculate(atDistance && level);
   }
 
   @Override
   public void end(boolean interrupted) {
-    swerveDrive.drive(0, 0, 0, true);
+    if (balanced) {
+      swerveDrive.setWheelsToXFormation();
+    } else {
+      swerveDrive.drive(0, 0, 0, true);
+    }
   }
 
   @Override
   public boolean isFinished() {
-    return false;
+    return balanced;
   }
 
   /**
@@ -68,13 +102,12 @@ public class BalanceRobot extends CommandBase {
    * @return distance from AprilTag
    */
   public double getDistance() {
-    PhotonPipelineResult result = camera.getLatestResult();
-    List<PhotonTrackedTarget> targets = result.getTargets();
-
-    for (PhotonTrackedTarget target : targets) {
-      if (target.getFiducialId() == 7 || target.getFiducialId() == 2) {
-        return target.getBestCameraToTarget().getX();
-      }
+    PhotonTrackedTarget target = vision.getTarget(7);
+    if (target == null) {
+      target = vision.getTarget(2);
+    }
+    if (target != null) {
+      return target.getBestCameraToTarget().getX();
     }
     return prevDistance;
   }
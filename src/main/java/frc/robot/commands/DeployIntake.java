@@ -1,19 +1,35 @@
 package frc.robot.commands;
 
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.*;
+import static frc.robot.Constants.IntakeConstants.*;
 
 /**
- * Deploys the intake and spins the intake motors inwards.
+ * Deploys the intake and spins the intake motors inwards. Runs until
+ * interrupted (e.g. while a button is held), or, for autos, until the roller
+ * current shows a game piece has been picked up.
  */
 public class DeployIntake extends CommandBase {
 
   private Intake intake;
   private Uprighter uprighter;
+  private final boolean endWhenLoaded;
+  private final Timer timer = new Timer();
+  private Debouncer loadedDebouncer;
 
   public DeployIntake(Intake _intake, Uprighter _uprighter) {
+    this(_intake, _uprighter, false);
+  }
+
+  /**
+   * @param _endWhenLoaded Whether to end once a game piece is loaded.
+   */
+  public DeployIntake(Intake _intake, Uprighter _uprighter, boolean _endWhenLoaded) {
     intake = _intake;
     uprighter = _uprighter;
+    endWhenLoaded = _endWhenLoaded;
     addRequirements(intake, uprighter);
   }
 
@@ -21,6 +37,9 @@ public class DeployIntake extends CommandBase {
   public void initialize() {
     intake.lower();
     intake.open();
+    timer.reset();
+    timer.start();
+    loadedDebouncer = new Debouncer(PIECE_DETECT_SECONDS);
   }
 
   @Override
@@ -38,6 +57,9 @@ public class DeployIntake extends CommandBase {
 
   @Override
   public boolean isFinished() {
-    return false;
+    if (!endWhenLoaded) {
+      return false;
+    }
+    return loadedDebouncer.calculate(timer.hasElapsed(ROLLER_SPINUP_SECONDS) && intake.isLoaded());
   }
 }
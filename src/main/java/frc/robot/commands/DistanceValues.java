@@ -1,31 +1,32 @@
 package frc.robot.commands;
 
-import java.util.List;
-import org.photonvision.PhotonCamera;
-import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
 import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.Vision;
+import frc.robot.util.Log;
 
 /**
  * Displays the distance of the robot from an AprilTag on the console.
  */
 public class DistanceValues extends CommandBase {
 
-  PhotonCamera camera;
+  private static final Log.Site distanceLog = Log.site("DistanceValues", Log.Level.INFO, 0.25);
 
-  public DistanceValues() {
+  Vision vision;
+
+  public DistanceValues(Vision _vision) {
+    vision = _vision;
     addRequirements();
   }
 
   @Override
   public void initialize() {
-    camera = new PhotonCamera("Microsoft_LifeCam_HD-3000");
   }
 
   @Override
   public void execute() {
     double distance = getDistance();
-    System.out.println("Distance Values: " + distance);
+    distanceLog.log("Distance Values: ", distance);
   }
 
   @Override
@@ -43,13 +44,12 @@ public class DistanceValues extends CommandBase {
    * @return the distance from AprilTag
    */
   public double getDistance() {
-    PhotonPipelineResult result = camera.getLatestResult();
-    List<PhotonTrackedTarget> targets = result.getTargets();
-
-    for (PhotonTrackedTarget target : targets) {
-      if (target.getFiducialId() == 7 || target.getFiducialId() == 2) {
-        return target.getBestCameraToTarget().getX();
-      }
+    PhotonTrackedTarget target = vision.getTarget(7);
+    if (target == null) {
+      target = vision.getTarget(2);
+    }
+    if (target != null) {
+      return target.getBestCameraToTarget().getX();
     }
     return 0.0;
   }
@@ -0,0 +1,84 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.GamePieceVision;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.util.GamePieceMap;
+import frc.robot.util.HolonomicAlignController;
+import static frc.robot.Constants.GamePieceVisionConstants.*;
+
+/**
+ * Drives to the nearest game piece on the field map, facing it with the intake.
+ * Unlike MLCubePickup, the target is a field position, so the robot keeps
+ * driving to the piece when it drops out of the camera's view.
+ */
+public class DriveToGamePiece extends CommandBase {
+
+  SwerveDrive swerveDrive;
+  GamePieceVision gamePieceVision;
+  int classId;
+  int lockedPieceId = -1;
+  double goalHeading = 0.0;
+
+  private final HolonomicAlignController controller = new HolonomicAlignController();
+  private final double[] pose = new double[3];
+  private final double[] output = new double[3];
+
+  public DriveToGamePiece(SwerveDrive _swerveDrive, GamePieceVision _gamePieceVision, int _classId) {
+    swerveDrive = _swerveDrive;
+    gamePieceVision = _gamePieceVision;
+    classId = _classId;
+    addRequirements(swerveDrive);
+  }
+
+  @Override
+  public void initialize() {
+    lockedPieceId = -1;
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+    controller.reset(pose[0], pose[1], pose[2]);
+    goalHeading = pose[2];
+  }
+
+  @Override
+  public void execute() {
+
+    // Stay locked on to the same piece until it is forgotten.
+    GamePieceMap.Piece piece = gamePieceVision.getMappedPiece(lockedPieceId);
+    if (piece == null) {
+      piece = gamePieceVision.getNearestPiece(classId);
+    }
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+    if (piece == null) {
+      lockedPieceId = -1;
+      controller.reset(pose[0], pose[1], pose[2]);
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+      return;
+    }
+    lockedPieceId = piece.getId();
+
+    // Face the piece, but stop turning once it is nearly under the intake,
+    // where its bearing is no longer meaningful.
+    double xError = piece.getX() - pose[0];
+    double yError = piece.getY() - pose[1];
+    if (Math.hypot(xError, yError) > PICKUP_DISTANCE_METERS) {
+      goalHeading = Math.atan2(yError, xError);
+    }
+    double goalX = piece.getX() - PICKUP_DISTANCE_METERS * Math.cos(goalHeading);
+    double goalY = piece.getY() - PICKUP_DISTANCE_METERS * Math.sin(goalHeading);
+
+    controller.calculate(pose[0], pose[1], pose[2], goalX, goalY, goalHeading, output);
+    swerveDrive.driveVelocity(output[0], output[1], output[2], true);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    swerveDrive.drive(0.0, 0.0, 0.0, true);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return lockedPieceId >= 0 && controller.atGoal();
+  }
+
+}
@@ -0,0 +1,75 @@
+package frc.robot.commands;
+
+import java.util.function.Supplier;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.util.HolonomicAlignController;
+
+/**
+ * Drives the robot to a field pose with motion profiled x, y and heading
+ * control, and ends once the robot is there and has settled.
+ *
+ * The target is read every cycle, so it can follow a vision corrected pose
+ * (e.g. Vision::getAlignPose). While the target is null the robot holds still.
+ */
+public class DriveToPose extends CommandBase {
+
+  SwerveDrive swerveDrive;
+  Supplier<Pose2d> targetSupplier;
+  boolean hasTarget = false;
+
+  private final HolonomicAlignController controller = new HolonomicAlignController();
+  private final double[] pose = new double[3];
+  private final double[] output = new double[3];
+
+  public DriveToPose(SwerveDrive _swerveDrive, Supplier<Pose2d> _targetSupplier) {
+    swerveDrive = _swerveDrive;
+    targetSupplier = _targetSupplier;
+    addRequirements(swerveDrive);
+  }
+
+  /**
+   * Drives to a fixed field pose.
+   */
+  public DriveToPose(SwerveDrive _swerveDrive, Pose2d target) {
+    this(_swerveDrive, () -> target);
+  }
+
+  @Override
+  public void initialize() {
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+    controller.reset(pose[0], pose[1], pose[2]);
+    hasTarget = false;
+  }
+
+  @Override
+  public void execute() {
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+    Pose2d target = targetSupplier.get();
+    if (target == null) {
+      // Restart the profiles from wherever the robot is when a target shows up.
+      controller.reset(pose[0], pose[1], pose[2]);
+      hasTarget = false;
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+      return;
+    }
+    hasTarget = true;
+
+    controller.calculate(pose[0], pose[1], pose[2], target.getX(), target.getY(),
+        target.getRotation().getRadians(), output);
+    swerveDrive.driveVelocity(output[0], output[1], output[2], true);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    swerveDrive.drive(0.0, 0.0, 0.0, true);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return hasTarget && controller.atGoal();
+  }
+
+}
@@ -0,0 +1,144 @@
+package frc.robot.commands;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.SwerveDrive;
+import frc.robot.util.TrajectoryCursor;
+import frc.robot.util.TrajectorySample;
+
+/**
+ * Follows a trajectory with holonomic feedback, like SwerveControllerCommand
+ * and PPSwerveControllerCommand: the trajectory velocity (and PathPlanner's
+ * holonomic angular velocity) as feedforward, plus PID on the x, y and
+ * rotation error. The rotation can instead use a profiled controller, like
+ * SwerveControllerCommand's theta controller.
+ *
+ * The trajectory is sampled with a TrajectoryCursor into a reused sample, so
+ * following does not search the state list or allocate states every cycle.
+ */
+public class FollowTrajectory extends CommandBase {
+
+  SwerveDrive swerveDrive;
+  PIDController xController;
+  PIDController yController;
+  PIDController rotationController;
+  ProfiledPIDController profiledRotationController;
+
+  private final PathPlannerTrajectory pathPlannerTrajectory;
+  private final boolean useAllianceColor;
+  private Alliance cursorAlliance = null;
+  private TrajectoryCursor cursor;
+
+  private final Timer timer = new Timer();
+  private final TrajectorySample sample = new TrajectorySample();
+  private final double[] pose = new double[3];
+
+  public FollowTrajectory(SwerveDrive _swerveDrive, Trajectory trajectory, PIDController _xController,
+      PIDController _yController, PIDController _rotationController) {
+    this(_swerveDrive, trajectory, null, false, _xController, _yController, _rotationController, null);
+  }
+
+  /**
+   * Follows a trajectory with a profiled rotation controller, which turns to
+   * the trajectory's rotation along a trapezoid profile like
+   * SwerveControllerCommand.
+   */
+  public FollowTrajectory(SwerveDrive _swerveDrive, Trajectory trajectory, PIDController _xController,
+      PIDController _yController, ProfiledPIDController _rotationController) {
+    this(_swerveDrive, trajectory, null, false, _xController, _yController, null, _rotationController);
+  }
+
+  /**
+   * Follows a PathPlanner path, mirrored for the red alliance if
+   * useAllianceColor is set (like SwerveAutoBuilder).
+   */
+  public FollowTrajectory(SwerveDrive _swerveDrive, PathPlannerTrajectory trajectory, boolean _useAllianceColor,
+      PIDController _xController, PIDController _yController, PIDController _rotationController) {
+    this(_swerveDrive, trajectory, trajectory, _useAllianceColor, _xController, _yController, _rotationController,
+        null);
+  }
+
+  private FollowTrajectory(SwerveDrive _swerveDrive, Trajectory trajectory,
+      PathPlannerTrajectory _pathPlannerTrajectory, boolean _useAllianceColor, PIDController _xController,
+      PIDController _yController, PIDController _rotationController,
+      ProfiledPIDController _profiledRotationController) {
+    swerveDrive = _swerveDrive;
+    pathPlannerTrajectory = _pathPlannerTrajectory;
+    useAllianceColor = _useAllianceColor;
+    xController = _xController;
+    yController = _yController;
+    rotationController = _rotationController;
+    profiledRotationController = _profiledRotationController;
+    if (rotationController != null) {
+      rotationController.enableContinuousInput(-Math.PI, Math.PI);
+    } else {
+      profiledRotationController.enableContinuousInput(-Math.PI, Math.PI);
+    }
+    if (!useAllianceColor) {
+      cursor = new TrajectoryCursor(trajectory);
+    }
+    addRequirements(swerveDrive);
+  }
+
+  @Override
+  public void initialize() {
+    if (useAllianceColor) {
+      // The alliance is only known once the driver station connects.
+      Alliance alliance = DriverStation.getAlliance();
+      if (cursor == null || alliance != cursorAlliance) {
+        cursor = new TrajectoryCursor(
+            PathPlannerTrajectory.transformTrajectoryForAlliance(pathPlannerTrajectory, alliance));
+        cursorAlliance = alliance;
+      }
+    }
+    cursor.reset();
+    xController.reset();
+    yController.reset();
+    if (rotationController != null) {
+      rotationController.reset();
+    } else {
+      swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+      profiledRotationController.reset(pose[2]);
+    }
+    timer.reset();
+    timer.start();
+  }
+
+  @Override
+  public void execute() {
+    cursor.sample(timer.get(), sample);
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), pose);
+
+    double xSpeed = sample.velocityMetersPerSecond * Math.cos(sample.headingRadians)
+        + xController.calculate(pose[0], sample.xMeters);
+    double ySpeed = sample.velocityMetersPerSecond * Math.sin(sample.headingRadians)
+        + yController.calculate(pose[1], sample.yMeters);
+    double rotationFeedback = rotationController != null
+        ? rotationController.calculate(pose[2], sample.holonomicRotationRadians)
+        : profiledRotationController.calculate(pose[2], sample.holonomicRotationRadians);
+    double angularSpeed = sample.holonomicAngularVelocityRadPerSec + rotationFeedback;
+
+    // Field relative to robot relative, in the odometry frame.
+    double cos = Math.cos(pose[2]);
+    double sin = Math.sin(pose[2]);
+    swerveDrive.driveVelocity(xSpeed * cos + ySpeed * sin, -xSpeed * sin + ySpeed * cos, angularSpeed, false);
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    timer.stop();
+    swerveDrive.driveVelocity(0.0, 0.0, 0.0, false);
+  }
+
+  @Override
+  public boolean isFinished() {
+    return timer.hasElapsed(cursor.getTotalTimeSeconds());
+  }
+
+}
@@ -1,69 +1,84 @@
 package frc.robot.commands;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.networktables.IntegerSubscriber;
-import edu.wpi.first.networktables.NetworkTable;
-import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.networktables.StringSubscriber;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.GamePieceVision;
 import frc.robot.subsystems.SwerveDrive;
+import frc.robot.util.GamePieceTracker;
+import frc.robot.util.HolonomicAlignController;
+import static frc.robot.Constants.GamePieceVisionConstants.*;
 
 /**
- * Aligns the robot to a cube using machine learning (TensorFlow).
+ * Aligns the robot to a cube using machine learning (TensorFlow). Until the ML
+ * camera is calibrated it steers on the cube's position in the image, since
+ * the floor projection would be off.
  */
 public class MLCubePickup extends CommandBase {
 
-  private static final int WIDTH = 160;
-  private static final int HEIGHT = 120;
-
   SwerveDrive swerveDrive;
+  GamePieceVision gamePieceVision;
+  int lockedTrackId = -1;
 
-  NetworkTableInstance inst = NetworkTableInstance.getDefault();
-
-  NetworkTable pieces = inst.getTable("Vision");
-  NetworkTable names = inst.getTable("Piece");
-
-  StringSubscriber name = names.getStringTopic("piece").subscribe("None");
-  IntegerSubscriber ymin = pieces.getIntegerTopic("yMin").subscribe(0);
-  IntegerSubscriber xmin = pieces.getIntegerTopic("xMin").subscribe(0);
-  IntegerSubscriber ymax = pieces.getIntegerTopic("yMax").subscribe(0);
-  IntegerSubscriber xmax = pieces.getIntegerTopic("xMax").subscribe(0);
-  IntegerSubscriber distance = pieces.getIntegerTopic("Distance").subscribe(0);
+  private final HolonomicAlignController controller = new HolonomicAlignController();
+  private final double[] cubePosition = new double[2];
+  private final double[] output = new double[3];
 
-  public MLCubePickup(SwerveDrive _swerveDrive) {
+  public MLCubePickup(SwerveDrive _swerveDrive, GamePieceVision _gamePieceVision) {
     swerveDrive = _swerveDrive;
+    gamePieceVision = _gamePieceVision;
     addRequirements(swerveDrive);
   }
 
   @Override
   public void initialize() {
+    lockedTrackId = -1;
   }
 
   @Override
   public void execute() {
 
-    int xCenter = getXCenter();
-    int yCenter = getYCenter();
-
-    PIDController xPID = new PIDController(1, 0, 0);
-    PIDController yPID = new PIDController(1, 0, 0);
-
-    xPID.setTolerance(.05);
-    yPID.setTolerance(.05);
-
-    double xPower = xPID.calculate(xCenter, WIDTH / 2);
-    xPower = xPower / 1000 * 6;
-
-    double yPower = yPID.calculate(yCenter, HEIGHT);
-    yPower = yPower / 1000 * 6;
+    // Stay locked on to the same cube until its track is dropped.
+    GamePieceTracker.Track cube = gamePieceVision.getTrack(lockedTrackId);
+    if (cube == null) {
+      cube = gamePieceVision.getBestTrack(CUBE_CLASS_ID);
+    }
+    double now = Timer.getFPGATimestamp();
+    if (cube != null && !ML_CAMERA_CALIBRATED) {
+      lockedTrackId = cube.getId();
+      steerInImage(cube, now);
+      return;
+    }
+    if (cube == null || !gamePieceVision.getTrackPosition(cube, now, cubePosition)) {
+      // Don't steer without a tracked cube.
+      lockedTrackId = -1;
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+      return;
+    }
 
-    if (!xPID.atSetpoint() && !yPID.atSetpoint()) {
-      swerveDrive.drive(yPower, xPower, 0, false);
+    // The robot's position relative to the cube, in the robot frame, is the
+    // negated cube position. Restart the profiles whenever a new cube is
+    // picked.
+    if (cube.getId() != lockedTrackId) {
+      controller.reset(-cubePosition[0], -cubePosition[1], 0.0);
+      lockedTrackId = cube.getId();
     }
+    controller.calculate(-cubePosition[0], -cubePosition[1], 0.0, -PICKUP_DISTANCE_METERS, 0.0, 0.0, output);
 
-    xPID.close();
-    yPID.close();
+    if (controller.atTranslationGoal()) {
+      swerveDrive.drive(0.0, 0.0, 0.0, true);
+    } else {
+      swerveDrive.driveVelocity(output[0], output[1], 0.0, false);
+    }
+  }
 
+  /**
+   * Centers the cube horizontally and drives forward until it reaches the
+   * bottom of the image.
+   */
+  private void steerInImage(GamePieceTracker.Track cube, double now) {
+    double xPower = (IMAGE_WIDTH / 2.0 - cube.getXCenter(now)) * IMAGE_STEER_GAIN;
+    double yPower = (IMAGE_HEIGHT - cube.getYCenter(now)) * IMAGE_STEER_GAIN;
+    swerveDrive.drive(yPower, xPower, 0.0, false);
   }
 
   @Override
@@ -76,53 +91,4 @@ public class MLCubePickup extends CommandBase {
     return false;
   }
 
-  /**
-   * Gets the center x coordinate of the detected game piece
-   * 
-   * @return the center x coordinate of the deteced game piece
-   */
-  public int getXCenter() {
-    long xMax = xmax.get();
-    long xMin = xmin.get();
-
-    long width = xMax - xMin;
-    long xCenter = xMin + (width / 2);
-
-    return (int) (xCenter);
-  }
-
-  /**
-   * Gets the center y coordinate of the detected game piece
-   * 
-   * @return the center y coordinate of the deteced game piece
-   */
-  public int getYCenter() {
-    long yMax = ymax.get();
-    long yMin = ymin.get();
-
-    long height = yMax - yMin;
-    long yCenter = yMin + (height / 2);
-
-    return (int) (yCenter);
-  }
-
-  /**
-   * Gets the distance from the robot to a detected game piece in meters
-   * 
-   * @return a game pieces' distance from the robot
-   */
-  public double getDistance() {
-    long d = distance.get();
-    return (double) (d);
-  }
-
-  /**
-   * Gets the name of a detected game piece
-   * 
-   * @return the name of a detected game piece
-   */
-  public String getName() {
-    return name.get();
-  }
-
 }
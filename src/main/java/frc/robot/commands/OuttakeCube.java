@@ -1,10 +1,16 @@
 package frc.robot.commands;
 
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.*;
+import static frc.robot.Constants.IntakeConstants.*;
 
 /**
- * Outtake a Cube using the intake/uprighter/gripper motors.
+ * Outtake a Cube using the intake/uprighter/gripper motors. Runs until
+ * interrupted (e.g. while a button is held), or, for autos, until the roller
+ * current shows a cube was in the rollers and has left them. Without a cube it
+ * never ends on its own, so autos cap it with a timeout.
  */
 public class OuttakeCube extends CommandBase {
 
@@ -12,17 +18,36 @@ public class OuttakeCube extends CommandBase {
   Uprighter uprighter;
   Gripper gripper;
   Double speed;
+  private final boolean endWhenEjected;
+  private final Timer timer = new Timer();
+  private Debouncer loadedDebouncer;
+  private Debouncer ejectedDebouncer;
+  private boolean sawLoaded;
 
   public OuttakeCube(Intake _intake, Uprighter _uprighter, Gripper _gripper, Double _speed) {
+    this(_intake, _uprighter, _gripper, _speed, false);
+  }
+
+  /**
+   * @param _endWhenEjected Whether to end once the cube has left the rollers.
+   */
+  public OuttakeCube(Intake _intake, Uprighter _uprighter, Gripper _gripper, Double _speed,
+      boolean _endWhenEjected) {
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     speed = _speed;
+    endWhenEjected = _endWhenEjected;
     addRequirements(intake);
   }
 
   @Override
   public void initialize() {
+    timer.reset();
+    timer.start();
+    loadedDebouncer = new Debouncer(PIECE_DETECT_SECONDS);
+    ejectedDebouncer = new Debouncer(PIECE_EJECT_SECONDS);
+    sawLoaded = false;
   }
 
   @Override
@@ -42,6 +67,14 @@ public class OuttakeCube extends CommandBase {
 
   @Override
   public boolean isFinished() {
-    return false;
+    if (!endWhenEjected || !timer.hasElapsed(ROLLER_SPINUP_SECONDS)) {
+      return false;
+    }
+    // Only a loaded to unloaded transition means the cube left.
+    boolean loaded = intake.isLoaded();
+    if (loadedDebouncer.calculate(loaded)) {
+      sawLoaded = true;
+    }
+    return ejectedDebouncer.calculate(sawLoaded && !loaded);
   }
 }
@@ -3,12 +3,17 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.*;
 import frc.robot.RobotContainer;
+import frc.robot.util.Log;
 
 /**
- * Rotate robot chassis to a predefined position relative to the field.
+ * Rotate robot chassis to a predefined position relative to the field. The
+ * driver can still translate while the robot turns. Ends once the robot has
+ * settled at the angle.
  */
 public class RotateRobot extends CommandBase {
 
+  private static final Log.Site yawLog = Log.site("RotateRobot", Log.Level.INFO, 0.5);
+
   SwerveDrive swerveDrive;
   Double desiredAngle;
 
@@ -20,6 +25,7 @@ public class RotateRobot extends CommandBase {
 
   @Override
   public void initialize() {
+    swerveDrive.snapToYaw(desiredAngle);
   }
 
   @Override
@@ -27,29 +33,17 @@ public class RotateRobot extends CommandBase {
     double xSpeed = -RobotContainer.driverOI.getLeftY();
     double ySpeed = -RobotContainer.driverOI.getLeftX();
 
-    double currentYaw = swerveDrive.getYaw();
-    System.out.println("yaw:" + currentYaw);
-    double difference = desiredAngle - currentYaw;
-    double error, angularRotation = 0.0;
-    double kP = 0.63;
-
-    if (Math.abs(difference) > 180) {
-      error = difference - (360 * (Math.abs(difference) / difference));
-    } else {
-      error = difference;
-    }
-
-    angularRotation = error / 180 * (Math.PI * kP);
-
-    swerveDrive.drive(xSpeed, ySpeed, -angularRotation, true);
+    yawLog.log("angle:", swerveDrive.getContinuousAngle());
+    swerveDrive.driveWithHeading(xSpeed, ySpeed, 0.0, true);
   }
 
   @Override
   public void end(boolean interrupted) {
+    swerveDrive.clearHeadingTarget();
   }
 
   @Override
   public boolean isFinished() {
-    return false;
+    return swerveDrive.atHeadingTarget();
   }
 }
@@ -1,69 +1,61 @@
 package frc.robot.subsystems;
 
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMax.IdleMode;
-import com.revrobotics.CANSparkMaxLowLevel.MotorType;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkMaxPIDController;
-import com.revrobotics.SparkMaxRelativeEncoder.Type;
-import com.revrobotics.CANSparkMax.SoftLimitDirection;
-import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.RobotContainer;
-import frc.robot.Constants.CANID;
+import frc.robot.subsystems.io.ArmIO;
+import frc.robot.util.LoopProfiler;
 import static frc.robot.Constants.ArmConstants.*;
 
 public class Arm extends SubsystemBase {
 
-  private CANSparkMax armMotor;
-  private RelativeEncoder armEncoder;
-  private DigitalInput leftArmLimitSwitch;
-  private DigitalInput rightArmLimitSwitch;
-  private SparkMaxPIDController armPIDController;
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Arm Periodic");
+
+  private final ArmIO io;
+  private final ArmIO.Inputs inputs = new ArmIO.Inputs();
   private double armSetpoint = 0.0;
   private TrapezoidProfile motorProfile;
   private TrapezoidProfile.State targetState;
   private double feedforward;
   private Timer timer;
 
-  public Arm() {
-
-    leftArmLimitSwitch = new DigitalInput(ARM_LEFT_LIMIT_SWITCH_DIO_CHANNEL);
-    rightArmLimitSwitch = new DigitalInput(ARM_RIGHT_LIMIT_SWITCH_DIO_CHANNEL);
-
-    armMotor = new CANSparkMax(CANID.ARM_SPARKMAX, MotorType.kBrushless);
-    armEncoder = armMotor.getEncoder(Type.kHallSensor, 42);
-
-    armMotor.setInverted(false);
-    armMotor.setSmartCurrentLimit(ARM_CURRENT_LIMIT);
-    armMotor.enableSoftLimit(SoftLimitDirection.kForward, true);
-    armMotor.enableSoftLimit(SoftLimitDirection.kReverse, true);
-    armMotor.setSoftLimit(SoftLimitDirection.kForward, (float) SOFT_LIMIT_FORWARD);
-    armMotor.setSoftLimit(SoftLimitDirection.kReverse, (float) SOFT_LIMIT_REVERSE);
-    armMotor.setIdleMode(IdleMode.kBrake);
-    armEncoder.setPositionConversionFactor(POSITION_CONVERSION_FACTOR);
-    armEncoder.setVelocityConversionFactor(VELOCITY_CONVERSION_FACTOR);
-    armPIDController = armMotor.getPIDController();
-    armPIDController.setP(ARM_DEFAULT_P);
-    armPIDController.setI(ARM_DEFAULT_I);
-    armPIDController.setD(ARM_DEFAULT_D);
-    armMotor.burnFlash();
+  // Sensor values from the last sensor snapshot.
+  private double armPosition = 0.0;
+  private double armVelocity = 0.0;
+  private boolean leftLimitSwitchValue = true;
+  private boolean rightLimitSwitchValue = true;
+
+  public Arm(ArmIO _io) {
+    io = _io;
 
     timer = new Timer();
     timer.start();
     timer.reset();
 
     // Set the starting state of the arm subsystem.
+    readSensors();
     updateMotionProfile();
     resetEncoder();
   }
 
+  /**
+   * Reads the arm encoder and limit switches once at the start of the cycle.
+   */
+  public void readSensors() {
+    io.updateInputs(inputs);
+    armPosition = inputs.positionRadians;
+    armVelocity = inputs.velocityRadiansPerSecond;
+    leftLimitSwitchValue = inputs.leftLimitSwitch;
+    rightLimitSwitchValue = inputs.rightLimitSwitch;
+  }
+
   @Override
   public void periodic() {
+    periodicPhase.begin();
     checkArmLimitSwitch();
     armValuesToNT();
+    periodicPhase.end();
   }
 
   /**
@@ -82,7 +74,7 @@ public class Arm extends SubsystemBase {
    * Updates the motion profile with the current arm position and velocity.
    */
   private void updateMotionProfile() {
-    TrapezoidProfile.State state = new TrapezoidProfile.State(armEncoder.getPosition(), armEncoder.getVelocity());
+    TrapezoidProfile.State state = new TrapezoidProfile.State(armPosition, armVelocity);
     TrapezoidProfile.State goal = new TrapezoidProfile.State(armSetpoint, 0.0);
     motorProfile = new TrapezoidProfile(ARM_MOTION_CONSTRAINTS, goal, state);
     timer.reset();
@@ -100,9 +92,18 @@ public class Arm extends SubsystemBase {
       targetState = motorProfile.calculate(elapsedTime);
     }
     // update the feedforward variable with the new target state
-    feedforward = ARM_FF.calculate(armEncoder.getPosition() + ARM_ZERO_COSINE_OFFSET, targetState.velocity);
+    feedforward = ARM_FF.calculate(armPosition + ARM_ZERO_COSINE_OFFSET, targetState.velocity);
     // set the arm motor speed to the target position
-    armPIDController.setReference(targetState.position, CANSparkMax.ControlType.kPosition, 0, feedforward);
+    io.setPosition(targetState.position, feedforward);
+  }
+
+  /**
+   * @return whether the motion profile to the target position has finished
+   *         and the measured arm position has settled at the target.
+   */
+  public boolean isAtTarget() {
+    return motorProfile.isFinished(timer.get()) && Math.abs(armPosition - armSetpoint) < ARM_POSITION_TOLERANCE
+        && Math.abs(armVelocity) < ARM_VELOCITY_TOLERANCE;
   }
 
   /**
@@ -112,23 +113,24 @@ public class Arm extends SubsystemBase {
    */
   public void runManual(double power) {
     // get the current position of the encoder
-    armSetpoint = armEncoder.getPosition();
+    armSetpoint = armPosition;
     // create a new target state with the current encoder position and zero velocity
     targetState = new TrapezoidProfile.State(armSetpoint, 0.0);
     // create a new motion profile with the current state as the target state
     motorProfile = new TrapezoidProfile(ARM_MOTION_CONSTRAINTS, targetState, targetState);
     // update the feedforward variable with the new target state
-    feedforward = ARM_FF.calculate(armEncoder.getPosition() + ARM_ZERO_COSINE_OFFSET, targetState.velocity);
+    feedforward = ARM_FF.calculate(armPosition + ARM_ZERO_COSINE_OFFSET, targetState.velocity);
     // set the arm motor speed to manual control with scaled power
-    armMotor.set((power * ARM_MANUAL_SCALED) + (feedforward / 12.0));
+    io.set((power * ARM_MANUAL_SCALED) + (feedforward / 12.0));
   }
 
   /**
    * Resets the encoder to zero.
    */
   public void resetEncoder() {
-    if (armEncoder.getPosition() != 0.0) {
-      armEncoder.setPosition(0.0);
+    if (armPosition != 0.0) {
+      io.resetEncoder();
+      armPosition = 0.0;
     }
   }
 
@@ -137,7 +139,7 @@ public class Arm extends SubsystemBase {
    * Note: Both limit switches return false by default.
    */
   public void checkArmLimitSwitch() {
-    if (!leftArmLimitSwitch.get() && !rightArmLimitSwitch.get()) {
+    if (!leftLimitSwitchValue && !rightLimitSwitchValue) {
       resetEncoder();
     }
   }
@@ -146,23 +148,23 @@ public class Arm extends SubsystemBase {
    * Sets the idle mode to "coast".
    */
   public void setIdleModeToCoast() {
-    armMotor.setIdleMode(IdleMode.kCoast);
+    io.setBrakeMode(false);
   }
 
   /**
    * Sets the idle mode to "brake".
    */
   public void armSetIdleModeToBrake() {
-    armMotor.setIdleMode(IdleMode.kBrake);
+    io.setBrakeMode(true);
   }
 
   /**
    * Put arm values on network tables.
    */
   public void armValuesToNT() {
-    RobotContainer.armPos.setDouble(armEncoder.getPosition());
-    RobotContainer.leftArmLimitSwitch.setBoolean(leftArmLimitSwitch.get());
-    RobotContainer.rightArmLimitSwitch.setBoolean(rightArmLimitSwitch.get());
+    RobotContainer.armPos.setDouble(armPosition);
+    RobotContainer.leftArmLimitSwitch.setBoolean(leftLimitSwitchValue);
+    RobotContainer.rightArmLimitSwitch.setBoolean(rightLimitSwitchValue);
   }
 
 }
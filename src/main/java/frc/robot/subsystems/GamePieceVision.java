@@ -0,0 +1,311 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.CameraProjection;
+import frc.robot.util.GamePieceDetection;
+import frc.robot.util.GamePieceMap;
+import frc.robot.util.GamePieceTracker;
+import frc.robot.util.LoopProfiler;
+import static frc.robot.Constants.GamePieceVisionConstants.*;
+
+/**
+ * Receives game piece detections from the ML coprocessor. Every frame arrives
+ * as one packed array, so a frame's boxes can never tear across two frames:
+ * 
+ * [captureTimeMicros, frameId, count, then per detection: classId, confidence,
+ * xMin, yMin, xMax, yMax, distanceMeters]
+ * 
+ * The capture time is in NetworkTables time, which is the FPGA time on the
+ * robot. Frames are read from a queue so each one is processed exactly once,
+ * and duplicate, out of order, malformed or stale frames are rejected.
+ *
+ * When ML_CAMERA_CALIBRATED is set, each accepted frame is also
+ * projected onto the floor and placed on the field with the robot pose at the
+ * capture time, so pieces stay on the map while the robot turns away from them.
+ *
+ * Commands only read detections, so they should not require this subsystem.
+ */
+public class GamePieceVision extends SubsystemBase {
+
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Game Piece Vision Periodic");
+
+  private final DoubleArraySubscriber detectionsSubscriber;
+
+  // Detections from the latest accepted frame, updated in place.
+  private final GamePieceDetection[] detections = new GamePieceDetection[MAX_DETECTIONS];
+  private int detectionCount = 0;
+  private double frameTimestamp = 0.0;
+  private long lastFrameId = -1;
+  private boolean hasNewFrame = false;
+  private long rejectedFrames = 0;
+
+  // Tracks pieces across frames so commands can hold on to one piece.
+  private final GamePieceTracker tracker = new GamePieceTracker();
+
+  // Remembers where pieces are on the field.
+  private final SwerveDrive swerveDrive;
+  private final CameraProjection projection = new CameraProjection(ML_CAMERA_FX, ML_CAMERA_FY, ML_CAMERA_CX,
+      ML_CAMERA_CY, ROBOT_TO_ML_CAMERA);
+  private final GamePieceMap map = new GamePieceMap();
+  private final double[] framePose = new double[3];
+  private final double[] robotPoint = new double[2];
+  private final double[] robotPose = new double[3];
+
+  public GamePieceVision(SwerveDrive _swerveDrive) {
+    swerveDrive = _swerveDrive;
+    detectionsSubscriber = NetworkTableInstance.getDefault().getTable(TABLE_NAME)
+        .getDoubleArrayTopic(DETECTIONS_TOPIC)
+        .subscribe(new double[0], PubSubOption.sendAll(true), PubSubOption.keepDuplicates(true),
+            PubSubOption.pollStorage(FRAME_QUEUE_DEPTH));
+    for (int i = 0; i < MAX_DETECTIONS; i++) {
+      detections[i] = new GamePieceDetection();
+    }
+  }
+
+  /**
+   * Processes every frame received since the last cycle, oldest first.
+   */
+  public void readSensors() {
+    hasNewFrame = false;
+    TimestampedDoubleArray[] frames = detectionsSubscriber.readQueue();
+    for (TimestampedDoubleArray frame : frames) {
+      if (acceptFrame(frame.value, frame.timestamp)) {
+        hasNewFrame = true;
+      } else {
+        rejectedFrames++;
+      }
+    }
+    double now = Timer.getFPGATimestamp();
+    tracker.expire(now);
+    map.expire(now);
+  }
+
+  @Override
+  public void periodic() {
+    periodicPhase.begin();
+    SmartDashboard.putNumber("ML Detections", isFresh() ? detectionCount : 0);
+    SmartDashboard.putNumber("ML Rejected Frames", rejectedFrames);
+    SmartDashboard.putNumber("ML Tracks", tracker.getActiveTrackCount());
+    SmartDashboard.putNumber("ML Mapped Pieces", map.getPieceCount());
+    periodicPhase.end();
+  }
+
+  /**
+   * Validates a packed frame and, if it is new and fresh, copies its detections.
+   * 
+   * @param frame             The packed frame.
+   * @param receiveTimeMicros The NetworkTables time the frame was set.
+   * @return whether the frame was accepted.
+   */
+  private boolean acceptFrame(double[] frame, long receiveTimeMicros) {
+    if (frame.length < FRAME_HEADER_LENGTH) {
+      return false;
+    }
+    int count = (int) frame[2];
+    if (count < 0 || frame.length < FRAME_HEADER_LENGTH + count * DETECTION_LENGTH) {
+      return false;
+    }
+
+    // Reject duplicate and out of order frames. The frame ID restarts when the
+    // coprocessor does, so ordering is checked on the capture time.
+    long frameId = (long) frame[1];
+    double captureTimeMicros = frame[0] > 0 ? frame[0] : receiveTimeMicros;
+    double timestamp = captureTimeMicros * 1E-6;
+    if (frameId == lastFrameId || timestamp <= frameTimestamp) {
+      return false;
+    }
+    if (Timer.getFPGATimestamp() - timestamp > FRAME_TIMEOUT_SECONDS) {
+      return false;
+    }
+
+    lastFrameId = frameId;
+    frameTimestamp = timestamp;
+    detectionCount = 0;
+    for (int i = 0; i < count && detectionCount < MAX_DETECTIONS; i++) {
+      int offset = FRAME_HEADER_LENGTH + i * DETECTION_LENGTH;
+      if (frame[offset + 1] < MIN_CONFIDENCE) {
+        continue;
+      }
+      GamePieceDetection detection = detections[detectionCount++];
+      detection.classId = (int) frame[offset];
+      detection.confidence = frame[offset + 1];
+      detection.xMin = frame[offset + 2];
+      detection.yMin = frame[offset + 3];
+      detection.xMax = frame[offset + 4];
+      detection.yMax = frame[offset + 5];
+      detection.distanceMeters = frame[offset + 6];
+    }
+    tracker.update(detections, detectionCount, timestamp);
+    mapDetections(timestamp);
+    return true;
+  }
+
+  /**
+   * Places the latest frame's detections on the field map, using the robot pose
+   * at the capture time.
+   * 
+   * @param timestamp The frame capture time, in FPGA seconds.
+   */
+  private void mapDetections(double timestamp) {
+    if (!ML_CAMERA_CALIBRATED || detectionCount == 0) {
+      return;
+    }
+    swerveDrive.getPoseAt(timestamp, framePose);
+    double cos = Math.cos(framePose[2]);
+    double sin = Math.sin(framePose[2]);
+    for (int i = 0; i < detectionCount; i++) {
+      GamePieceDetection detection = detections[i];
+      // The bottom center of the box is where the piece's near edge meets the
+      // floor.
+      if (!projection.projectToFloor(detection.getXCenter(), detection.yMax, detection.distanceMeters,
+          GAME_PIECE_RADIUS_METERS, MAX_PROJECTION_RANGE_METERS, robotPoint)) {
+        continue;
+      }
+      double fieldX = framePose[0] + robotPoint[0] * cos - robotPoint[1] * sin;
+      double fieldY = framePose[1] + robotPoint[0] * sin + robotPoint[1] * cos;
+      map.addObservation(detection.classId, fieldX, fieldY, detection.confidence, timestamp);
+    }
+  }
+
+  /**
+   * @return the number of detections in the latest accepted frame.
+   */
+  public int getDetectionCount() {
+    return detectionCount;
+  }
+
+  /**
+   * Returns a detection from the latest accepted frame.
+   * 
+   * Note: The returned holder is reused and updated in place.
+   * 
+   * @param index The detection index, less than getDetectionCount().
+   * @return the detection.
+   */
+  public GamePieceDetection getDetection(int index) {
+    return detections[index];
+  }
+
+  /**
+   * Returns the most confident detection of the given class from the latest
+   * frame, if the frame is still fresh.
+   * 
+   * @param classId The game piece class.
+   * @return the detection, or null if there is none.
+   */
+  public GamePieceDetection getBestDetection(int classId) {
+    if (!isFresh()) {
+      return null;
+    }
+    GamePieceDetection best = null;
+    for (int i = 0; i < detectionCount; i++) {
+      GamePieceDetection detection = detections[i];
+      if (detection.classId == classId && (best == null || detection.confidence > best.confidence)) {
+        best = detection;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the most confident confirmed track of the given class. Tracks keep
+   * predicting through short detection dropouts.
+   * 
+   * @param classId The game piece class.
+   * @return the track, or null if there is none.
+   */
+  public GamePieceTracker.Track getBestTrack(int classId) {
+    return tracker.getBestTrack(classId);
+  }
+
+  /**
+   * Returns the active track with the given ID, so a command can stay locked on
+   * to one piece.
+   * 
+   * @param id The track ID.
+   * @return the track, or null if it was dropped.
+   */
+  public GamePieceTracker.Track getTrack(int id) {
+    return tracker.getTrack(id);
+  }
+
+  /**
+   * Projects a track onto the floor, giving the piece's position relative to
+   * the robot.
+   * 
+   * @param track The track.
+   * @param time  The FPGA time to predict the track to.
+   * @param point Filled with the robot frame x and y in meters.
+   * @return whether the track could be projected.
+   */
+  public boolean getTrackPosition(GamePieceTracker.Track track, double time, double[] point) {
+    double bottom = track.getYCenter(time) + track.getHeight() / 2.0;
+    return projection.projectToFloor(track.getXCenter(time), bottom, track.getDistanceMeters(),
+        GAME_PIECE_RADIUS_METERS, MAX_PROJECTION_RANGE_METERS, point);
+  }
+
+  /**
+   * Returns the confirmed mapped piece of the given class closest to the robot.
+   * Mapped pieces are remembered for a few seconds after they leave the frame.
+   * 
+   * @param classId The game piece class.
+   * @return the piece, or null if there is none.
+   */
+  public GamePieceMap.Piece getNearestPiece(int classId) {
+    swerveDrive.getPoseAt(Timer.getFPGATimestamp(), robotPose);
+    return map.getNearestPiece(classId, robotPose[0], robotPose[1]);
+  }
+
+  /**
+   * Returns the mapped piece with the given ID, so a command can stay locked on
+   * to one piece.
+   * 
+   * @param id The piece ID.
+   * @return the piece, or null if it was forgotten.
+   */
+  public GamePieceMap.Piece getMappedPiece(int id) {
+    return map.getPiece(id);
+  }
+
+  /**
+   * @return whether a cube is on the field map.
+   */
+  public boolean hasMappedCube() {
+    return getNearestPiece(CUBE_CLASS_ID) != null;
+  }
+
+  /**
+   * @return the capture time of the latest accepted frame, in FPGA seconds.
+   */
+  public double getFrameTimestamp() {
+    return frameTimestamp;
+  }
+
+  /**
+   * @return whether a new frame was accepted this cycle.
+   */
+  public boolean hasNewFrame() {
+    return hasNewFrame;
+  }
+
+  /**
+   * @return whether the latest accepted frame is recent enough to act on.
+   */
+  public boolean isFresh() {
+    return Timer.getFPGATimestamp() - frameTimestamp < FRAME_TIMEOUT_SECONDS;
+  }
+
+  /**
+   * @return the number of duplicate, out of order, malformed or stale frames.
+   */
+  public long getRejectedFrames() {
+    return rejectedFrames;
+  }
+
+}
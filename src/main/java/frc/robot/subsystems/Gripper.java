@@ -1,73 +1,68 @@
 package frc.robot.subsystems;
 
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMax.IdleMode;
-import com.revrobotics.CANSparkMaxLowLevel.MotorType;
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.PneumaticsModuleType;
-import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.RobotContainer;
-import frc.robot.Constants.CANID;
+import frc.robot.subsystems.io.GripperIO;
+import frc.robot.util.LoopProfiler;
 import static frc.robot.Constants.GripperConstants.*;
 
 public class Gripper extends SubsystemBase {
 
-  private CANSparkMax gripperMotor;
-  private Solenoid gripperPiston;
-  private DigitalInput gripperLimitSwitch;
-  private boolean isOpen = true;
-
-  public Gripper() {
-
-    // Gripper Motor
-    gripperMotor = new CANSparkMax(CANID.GRIPPER_SPARKMAX, MotorType.kBrushless);
-    gripperMotor.restoreFactoryDefaults();
-    gripperMotor.setIdleMode(IdleMode.kBrake);
-    gripperMotor.setInverted(false);
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Gripper Periodic");
 
-    // Gripper Piston/Pincher
-    gripperPiston = new Solenoid(PneumaticsModuleType.CTREPCM, PINCHER_SOLENOID_CHANNEL);
+  private final GripperIO io;
+  private final GripperIO.Inputs inputs = new GripperIO.Inputs();
+  private boolean isOpen = true;
 
-    // Gripper Limit Switch
-    gripperLimitSwitch = new DigitalInput(GRIPPER_LIMIT_SWITCH_DIO_CHANNEL);
+  public Gripper(GripperIO _io) {
+    io = _io;
+    readSensors();
 
     // Set the starting state of the gripper subsystem.
     open();
   }
 
+  /**
+   * Reads the gripper limit switch once at the start of the cycle.
+   */
+  public void readSensors() {
+    io.updateInputs(inputs);
+  }
+
   @Override
   public void periodic() {
+    periodicPhase.begin();
     RobotContainer.gripperLimitSwitch.setBoolean(isPressed());
+    periodicPhase.end();
   }
 
   // Gripper Motors
 
   public void spin(double speed) {
-    gripperMotor.set(speed * GRIPPER_SPEED_OFFSET);
+    io.setMotor(speed * GRIPPER_SPEED_OFFSET);
   }
 
   public void spinIn() {
-    gripperMotor.set(-GRIPPER_SPEED);
+    io.setMotor(-GRIPPER_SPEED);
   }
 
   public void spinOut() {
-    gripperMotor.set(GRIPPER_SPEED);
+    io.setMotor(GRIPPER_SPEED);
   }
 
   public void stop() {
-    gripperMotor.stopMotor();
+    io.setMotor(0.0);
   }
 
   // Gripper Pistons
 
   public void open() {
-    gripperPiston.set(false);
+    io.setPiston(false);
     isOpen = true;
   }
 
   public void close() {
-    gripperPiston.set(true);
+    io.setPiston(true);
     isOpen = false;
   }
 
@@ -82,7 +77,7 @@ public class Gripper extends SubsystemBase {
   // Gripper Limit Switch
 
   public boolean isPressed() {
-    return gripperLimitSwitch.get();
+    return inputs.limitSwitch;
   }
 
 }
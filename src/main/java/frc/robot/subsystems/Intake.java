@@ -1,89 +1,93 @@
 package frc.robot.subsystems;
 
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import edu.wpi.first.wpilibj.PneumaticsModuleType;
-import edu.wpi.first.wpilibj.Solenoid;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMax.IdleMode;
-import com.revrobotics.CANSparkMaxLowLevel.MotorType;
-import frc.robot.Constants.CANID;
+import frc.robot.subsystems.io.IntakeIO;
+import frc.robot.util.LoopProfiler;
 import static frc.robot.Constants.IntakeConstants.*;
 
 public class Intake extends SubsystemBase {
 
-  private CANSparkMax intakeMotorLeft;
-  private CANSparkMax intakeMotorRight;
-  private Solenoid intakePistons;
-  private Solenoid lifterPistons;
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Intake Periodic");
 
-  public Intake() {
+  private final IntakeIO io;
+  private final IntakeIO.Inputs inputs = new IntakeIO.Inputs();
 
-    // Intake Motor Left
-    intakeMotorLeft = new CANSparkMax(CANID.LEFT_INTAKE_SPARKMAX, MotorType.kBrushless);
-    intakeMotorLeft.restoreFactoryDefaults();
-    intakeMotorLeft.setIdleMode(IdleMode.kBrake);
-    intakeMotorLeft.setInverted(false);
-
-    // Intake Motor Right
-    intakeMotorRight = new CANSparkMax(CANID.RIGHT_INTAKE_SPARKMAX, MotorType.kBrushless);
-    intakeMotorRight.restoreFactoryDefaults();
-    intakeMotorRight.setIdleMode(IdleMode.kBrake);
-    intakeMotorRight.setInverted(false);
-
-    // Intake Pistons
-    intakePistons = new Solenoid(PneumaticsModuleType.CTREPCM, INTAKE_PISTON_SOLENOID_CHANNEL);
-
-    // Lifter Pistons
-    lifterPistons = new Solenoid(PneumaticsModuleType.CTREPCM, LIFTER_PISTON_SOLENOID_CHANNEL);
+  public Intake(IntakeIO _io) {
+    io = _io;
+    readSensors();
 
     // Set the starting position of the intake subsystem.
     open();
     raise();
   }
 
+  /**
+   * Reads the roller currents once at the start of the cycle.
+   */
+  public void readSensors() {
+    io.updateInputs(inputs);
+  }
+
   @Override
   public void periodic() {
+    periodicPhase.begin();
+    // For tuning PIECE_CURRENT_AMPS.
+    SmartDashboard.putNumber("Intake Roller Current", getRollerCurrent());
+    periodicPhase.end();
   }
 
   // Intake Motors
 
   public void spin(Double speed) {
-    intakeMotorLeft.set(-speed);
-    intakeMotorRight.set(speed);
+    io.setMotors(-speed, speed);
   }
 
   public void spinIn() {
-    intakeMotorLeft.set(INTAKE_SPEED);
-    intakeMotorRight.set(-INTAKE_SPEED);
+    io.setMotors(INTAKE_SPEED, -INTAKE_SPEED);
   }
 
   public void spinOut() {
-    intakeMotorLeft.set(-OUTTAKE_HIGH_SPEED);
-    intakeMotorRight.set(OUTTAKE_HIGH_SPEED);
+    io.setMotors(-OUTTAKE_HIGH_SPEED, OUTTAKE_HIGH_SPEED);
   }
 
   public void stop() {
-    intakeMotorLeft.stopMotor();
-    intakeMotorRight.stopMotor();
+    io.setMotors(0.0, 0.0);
+  }
+
+  /**
+   * @return the larger of the two roller currents, which rises when the
+   *         rollers are loaded by a game piece.
+   */
+  public double getRollerCurrent() {
+    return Math.max(inputs.leftCurrentAmps, inputs.rightCurrentAmps);
+  }
+
+  /**
+   * @return whether the roller current says a game piece is in the rollers.
+   *         Meaningless while the rollers spin up.
+   */
+  public boolean isLoaded() {
+    return getRollerCurrent() > PIECE_CURRENT_AMPS;
   }
 
   // Intake Pistons
 
   public void close() {
-    intakePistons.set(true);
+    io.setIntakePistons(true);
   }
 
   public void open() {
-    intakePistons.set(false);
+    io.setIntakePistons(false);
   }
 
   // Lifter Pistons
 
   public void raise() {
-    lifterPistons.set(false);
+    io.setLifterPistons(false);
   }
 
   public void lower() {
-    lifterPistons.set(true);
+    io.setLifterPistons(true);
   }
 }
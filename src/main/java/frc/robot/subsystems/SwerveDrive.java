@@ -1,82 +1,286 @@
 package frc.robot.subsystems;
 
-import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.SPI;
-import com.kauailabs.navx.frc.AHRS;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import frc.robot.Constants.CANID;
+import frc.robot.subsystems.io.GyroIO;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.MutableModulePosition;
+import frc.robot.util.OdometrySampleBuffer;
+import frc.robot.util.SwervePoseEstimator;
+import frc.robot.util.SwerveKinematics;
+import frc.robot.util.SwerveSetpointGenerator;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.Log;
 import static frc.robot.Constants.SwerveDriveConstants.*;
+import static frc.robot.Constants.VisionConstants.*;
+import static frc.robot.Constants.SwerveModuleConstants.ANGLE_HOLD_ENABLED;
+import static frc.robot.Constants.SwerveModuleConstants.COSINE_COMPENSATION_ENABLED;
 
 public class SwerveDrive extends SubsystemBase {
 
-  private final SwerveModule frontLeftModule = new SwerveModule(
-      CANID.FRONT_LEFT_DRIVING_SPARKMAX,
-      CANID.FRONT_LEFT_TURNING_SPARKMAX,
-      (-Math.PI / 2));
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Swerve Drive Periodic");
 
-  private final SwerveModule frontRightModule = new SwerveModule(
-      CANID.FRONT_RIGHT_DRIVING_SPARKMAX,
-      CANID.FRONT_RIGHT_TURNING_SPARKMAX,
-      (0));
-
-  private final SwerveModule rearLeftModule = new SwerveModule(
-      CANID.REAR_LEFT_DRIVING_SPARKMAX,
-      CANID.REAR_LEFT_TURNING_SPARKMAX,
-      (Math.PI));
-
-  private final SwerveModule rearRightModule = new SwerveModule(
-      CANID.REAR_RIGHT_DRIVING_SPARKMAX,
-      CANID.REAR_RIGHT_TURNING_SPARKMAX,
-      (Math.PI / 2));
+  private final SwerveModule frontLeftModule;
+  private final SwerveModule frontRightModule;
+  private final SwerveModule rearLeftModule;
+  private final SwerveModule rearRightModule;
 
   // Attitude and Heading Reference System (AHRS)
-  private final AHRS navX = new AHRS(SPI.Port.kMXP);
+  private final GyroIO gyro;
+  private final GyroIO.Inputs gyroInputs = new GyroIO.Inputs();
+
+  // Gyro values from the last sensor snapshot.
+  private double continuousAngle = 0.0;
+  private double yaw = 0.0;
+  private double pitch = 0.0;
+  private double roll = 0.0;
+  private double yawRate = 0.0;
+  private double sensorTimestamp = 0.0;
 
   public double maxPitch = 0;
   public double maxRoll = 0;
 
-  // Setup rate limiters for translation and rotation.
+  // Virtual gear, scales the joystick translation speed.
   private double translationalRateLimiter = VIRTUAL_LOW_GEAR_RATE;
-  private SlewRateLimiter rotationalRateLimiter = new SlewRateLimiter(ROTATIONAL_SLEW_RATE);
 
-  // Create odometry object for tracking robot pose.
-  SwerveDriveOdometry robotOdometry = new SwerveDriveOdometry(
-      SWERVE_DRIVE_KINEMATICS,
-      Rotation2d.fromDegrees(getContinuousAngle()),
-      new SwerveModulePosition[] {
-          frontLeftModule.getPosition(),
-          frontRightModule.getPosition(),
-          rearLeftModule.getPosition(),
-          rearRightModule.getPosition()
-      });
+  // Limits the module setpoints to what the drivetrain can follow. Restarted
+  // from the wheel angles whenever the modules were commanded some other way.
+  private final SwerveSetpointGenerator setpointGenerator = new SwerveSetpointGenerator();
+  private final double[] setpointSpeeds = new double[4];
+  private final double[] setpointAngles = new double[4];
+  private boolean setpointValid = false;
+  private double lastSetpointTimestamp = 0.0;
+
+  // Measured module states for the simulated gyro.
+  private final double[] measuredSpeeds = new double[4];
+  private final double[] measuredAngles = new double[4];
+  private final double[] measuredChassisSpeeds = new double[3];
+
+  // Heading controller, on the gyro yaw converted to counter-clockwise radians.
+  // HOLD keeps the heading the robot had when the driver let go of the
+  // rotation stick; SNAP turns to a requested yaw.
+  private enum HeadingMode {
+    OFF, HOLD, SNAP
+  }
+
+  private final ProfiledPIDController headingController = new ProfiledPIDController(HEADING_P, 0.0, 0.0,
+      HEADING_CONSTRAINTS);
+  private HeadingMode headingMode = HeadingMode.OFF;
+  private double headingGoal = 0.0;
+  private double lastHeadingTimestamp = 0.0;
+
+  // Module positions, updated in place by each module every cycle.
+  private final MutableModulePosition[] modulePositions;
+
+  // Create pose estimator for tracking robot pose with vision corrections.
+  private final SwervePoseEstimator poseEstimator;
+
+  // High-rate odometry sampler. The sampler thread writes timestamped samples
+  // into a lock-free buffer which periodic() drains and integrates.
+  private final Notifier odometryNotifier = new Notifier(this::sampleOdometry);
+  private final OdometrySampleBuffer odometryBuffer = new OdometrySampleBuffer(ODOMETRY_BUFFER_CAPACITY, 4);
+  private final OdometrySampleBuffer.Sample odometrySample = new OdometrySampleBuffer.Sample(4);
+  private final double[] sampledDistances = new double[4];
+  private final double[] sampledAngles = new double[4];
+  private boolean highRateOdometryEnabled = false;
+  private double odometryResetTimestamp = 0.0;
+
+  // Allocation counters for the odometry and module command paths.
+  private final AllocationCounter odometryAllocations = new AllocationCounter("Odometry Alloc Bytes");
+  private final AllocationCounter driveAllocations = new AllocationCounter("Drive Alloc Bytes");
 
   /**
    * Constructor for a new SwerveDrive Subsystem.
+   * 
+   * @param _frontLeft  The front left module hardware.
+   * @param _frontRight The front right module hardware.
+   * @param _rearLeft   The rear left module hardware.
+   * @param _rearRight  The rear right module hardware.
+   * @param _gyro       The gyro hardware.
    */
-  public SwerveDrive() {
+  public SwerveDrive(SwerveModuleIO _frontLeft, SwerveModuleIO _frontRight, SwerveModuleIO _rearLeft,
+      SwerveModuleIO _rearRight, GyroIO _gyro) {
+    frontLeftModule = new SwerveModule(_frontLeft, (-Math.PI / 2));
+    frontRightModule = new SwerveModule(_frontRight, (0));
+    rearLeftModule = new SwerveModule(_rearLeft, (Math.PI));
+    rearRightModule = new SwerveModule(_rearRight, (Math.PI / 2));
+    gyro = _gyro;
+
+    modulePositions = new MutableModulePosition[] {
+        frontLeftModule.getPosition(),
+        frontRightModule.getPosition(),
+        rearLeftModule.getPosition(),
+        rearRightModule.getPosition()
+    };
+
     // Note: NavX calibration takes approximately 3 to 4 seconds.
-    navX.calibrate();
+    gyro.calibrate();
+    readSensors();
+
+    poseEstimator = new SwervePoseEstimator(
+        MODULE_TRANSLATIONS,
+        Math.toRadians(getContinuousAngle()),
+        modulePositions,
+        new Pose2d(),
+        STATE_STD_DEVS,
+        VISION_STD_DEVS,
+        POSE_HISTORY_SECONDS,
+        POSE_HISTORY_CAPACITY);
+
+    headingController.enableContinuousInput(-Math.PI, Math.PI);
+
+    odometryNotifier.setName("OdometrySampler");
+    setHighRateOdometry(HIGH_RATE_ODOMETRY_ENABLED);
+    SmartDashboard.putBoolean("High Rate Odometry", HIGH_RATE_ODOMETRY_ENABLED);
+    SmartDashboard.putBoolean("Module Cosine Compensation", COSINE_COMPENSATION_ENABLED);
+    SmartDashboard.putBoolean("Module Angle Hold", ANGLE_HOLD_ENABLED);
+  }
+
+  /**
+   * Reads the gyro and module encoders once at the start of the cycle so every
+   * subsystem and command sees the same values.
+   */
+  public void readSensors() {
+    sensorTimestamp = Timer.getFPGATimestamp();
+    gyro.updateInputs(gyroInputs);
+    continuousAngle = -gyroInputs.angleDegrees;
+    yaw = gyroInputs.yawDegrees;
+    pitch = gyroInputs.pitchDegrees;
+    roll = gyroInputs.rollDegrees;
+    yawRate = -gyroInputs.rateDegreesPerSecond;
+    updateModulePositions();
   }
 
   @Override
   public void periodic() {
+    periodicPhase.begin();
+    // Allow A/B testing of the sampler and module options from the dashboard.
+    boolean highRateRequested = SmartDashboard.getBoolean("High Rate Odometry", highRateOdometryEnabled);
+    if (highRateRequested != highRateOdometryEnabled) {
+      setHighRateOdometry(highRateRequested);
+    }
+    setModuleOptions(SmartDashboard.getBoolean("Module Cosine Compensation", COSINE_COMPENSATION_ENABLED),
+        SmartDashboard.getBoolean("Module Angle Hold", ANGLE_HOLD_ENABLED));
+
+    odometryAllocations.start();
     // Update the odometry with esitmated robot pose.
-    robotOdometry.update(
-        Rotation2d.fromDegrees(getContinuousAngle()),
-        new SwerveModulePosition[] {
-            frontLeftModule.getPosition(),
-            frontRightModule.getPosition(),
-            rearLeftModule.getPosition(),
-            rearRightModule.getPosition()
-        });
+    if (highRateOdometryEnabled) {
+      // Integrate every pending sample, oldest first.
+      while (odometryBuffer.poll(odometrySample)) {
+        if (odometrySample.timestampSeconds >= odometryResetTimestamp) {
+          poseEstimator.update(odometrySample.timestampSeconds, odometrySample.gyroRadians,
+              odometrySample.positions);
+        }
+      }
+    } else {
+      poseEstimator.update(sensorTimestamp, Math.toRadians(getContinuousAngle()), modulePositions);
+    }
+    odometryAllocations.stop();
+
+    odometryAllocations.publish();
+    driveAllocations.publish();
+    SmartDashboard.putNumber("Odometry Dropped Samples", odometryBuffer.getDroppedSamples());
+    periodicPhase.end();
+  }
+
+  @Override
+  public void simulationPeriodic() {
+    // Turn the simulated gyro by the rotation the modules are driving.
+    measuredSpeeds[0] = frontLeftModule.getVelocityMetersPerSecond();
+    measuredSpeeds[1] = frontRightModule.getVelocityMetersPerSecond();
+    measuredSpeeds[2] = rearLeftModule.getVelocityMetersPerSecond();
+    measuredSpeeds[3] = rearRightModule.getVelocityMetersPerSecond();
+    measuredAngles[0] = frontLeftModule.getPosition().angleRadians;
+    measuredAngles[1] = frontRightModule.getPosition().angleRadians;
+    measuredAngles[2] = rearLeftModule.getPosition().angleRadians;
+    measuredAngles[3] = rearRightModule.getPosition().angleRadians;
+    SWERVE_KINEMATICS.toChassisSpeeds(measuredSpeeds, measuredAngles, measuredChassisSpeeds);
+    gyro.updateSimulation(measuredChassisSpeeds[2], TimedRobot.kDefaultPeriod);
+  }
+
+  /**
+   * Turns the module cosine compensation and angle hold on or off, e.g. to
+   * compare path tracking error with and without them.
+   * 
+   * @param cosineCompensation Whether to scale drive speed by azimuth error.
+   * @param angleHold          Whether to hold the azimuth when nearly stopped.
+   */
+  public void setModuleOptions(boolean cosineCompensation, boolean angleHold) {
+    frontLeftModule.setCosineCompensation(cosineCompensation);
+    frontRightModule.setCosineCompensation(cosineCompensation);
+    rearLeftModule.setCosineCompensation(cosineCompensation);
+    rearRightModule.setCosineCompensation(cosineCompensation);
+    frontLeftModule.setAngleHold(angleHold);
+    frontRightModule.setAngleHold(angleHold);
+    rearLeftModule.setAngleHold(angleHold);
+    rearRightModule.setAngleHold(angleHold);
+  }
+
+  /**
+   * Starts or stops the high-rate odometry sampler. When stopped, odometry is
+   * integrated once per robot loop in periodic().
+   * 
+   * @param enabled Whether to sample odometry on the high-rate thread.
+   */
+  public void setHighRateOdometry(boolean enabled) {
+    if (enabled) {
+      odometryBuffer.clear();
+      odometryNotifier.startPeriodic(1.0 / ODOMETRY_FREQUENCY_HZ);
+    } else {
+      odometryNotifier.stop();
+    }
+    highRateOdometryEnabled = enabled;
+    Log.info("SwerveDrive", enabled ? "High rate odometry ENABLED." : "High rate odometry DISABLED.");
+  }
+
+  /**
+   * Reads the module encoders and gyro on the sampler thread and writes a
+   * timestamped sample into the odometry buffer.
+   */
+  private void sampleOdometry() {
+    double timestamp = Timer.getFPGATimestamp();
+    sampledDistances[0] = frontLeftModule.getDrivePositionMeters();
+    sampledDistances[1] = frontRightModule.getDrivePositionMeters();
+    sampledDistances[2] = rearLeftModule.getDrivePositionMeters();
+    sampledDistances[3] = rearRightModule.getDrivePositionMeters();
+    sampledAngles[0] = frontLeftModule.getAngleRadians();
+    sampledAngles[1] = frontRightModule.getAngleRadians();
+    sampledAngles[2] = rearLeftModule.getAngleRadians();
+    sampledAngles[3] = rearRightModule.getAngleRadians();
+    odometryBuffer.write(timestamp, Math.toRadians(-gyro.getAngleDegrees()), sampledDistances, sampledAngles);
+  }
+
+  /**
+   * Refreshes the module position holders in place.
+   */
+  private void updateModulePositions() {
+    frontLeftModule.readSensors();
+    frontRightModule.readSensors();
+    rearLeftModule.readSensors();
+    rearRightModule.readSensors();
+  }
+
+  /**
+   * Adds a vision pose measurement, stamped with its capture time, to the pose
+   * estimator.
+   * 
+   * @param visionPose       The robot pose measured by vision.
+   * @param timestampSeconds The FPGA timestamp the image was captured at.
+   * @param xStdDev          The x standard deviation in meters.
+   * @param yStdDev          The y standard deviation in meters.
+   * @param thetaStdDev      The theta standard deviation in radians.
+   */
+  public void addVisionMeasurement(Pose2d visionPose, double timestampSeconds, double xStdDev, double yStdDev,
+      double thetaStdDev) {
+    poseEstimator.addVisionMeasurement(visionPose, timestampSeconds, xStdDev, yStdDev, thetaStdDev);
   }
 
   /**
@@ -84,7 +288,7 @@ public class SwerveDrive extends SubsystemBase {
    */
   public void setVirtualHighGear() {
     translationalRateLimiter = VIRTUAL_HIGH_GEAR_RATE;
-    System.out.println("Setting virtual gear to HIGH.");
+    Log.info("SwerveDrive", "Setting virtual gear to HIGH.");
   }
 
   /**
@@ -92,7 +296,7 @@ public class SwerveDrive extends SubsystemBase {
    */
   public void setVirtualLowGear() {
     translationalRateLimiter = VIRTUAL_LOW_GEAR_RATE;
-    System.out.println("Setting virtual gear to LOW.");
+    Log.info("SwerveDrive", "Setting virtual gear to LOW.");
   }
 
   /**
@@ -101,19 +305,27 @@ public class SwerveDrive extends SubsystemBase {
    * @return The robot's pose.
    */
   public Pose2d getPose() {
-    return robotOdometry.getPoseMeters();
+    return poseEstimator.getEstimatedPosition();
+  }
+
+  /**
+   * Looks up the estimated pose at a past time, e.g. when a camera frame was
+   * captured.
+   * 
+   * @param timestampSeconds The FPGA time.
+   * @param pose             Filled with x meters, y meters and theta radians.
+   */
+  public void getPoseAt(double timestampSeconds, double[] pose) {
+    poseEstimator.samplePose(timestampSeconds, pose);
   }
 
   /** Resets the odometry to the specified pose. */
   public void resetOdometry(Pose2d pose) {
-    robotOdometry.resetPosition(
-        Rotation2d.fromDegrees(getContinuousAngle()),
-        new SwerveModulePosition[] {
-            frontLeftModule.getPosition(),
-            frontRightModule.getPosition(),
-            rearLeftModule.getPosition(),
-            rearRightModule.getPosition()
-        }, pose);
+    // Reset from the sensor snapshot. Samples taken before the snapshot are
+    // relative to the old pose.
+    odometryResetTimestamp = sensorTimestamp;
+    odometryBuffer.clear();
+    poseEstimator.resetPosition(Math.toRadians(getContinuousAngle()), modulePositions, pose);
   }
 
   /**
@@ -126,62 +338,217 @@ public class SwerveDrive extends SubsystemBase {
    */
   public void drive(double xSpeed, double ySpeed, double angularRotation, boolean fieldRelative) {
 
-    // Limit the rate of change of the robot's speed before updating module states.
+    // Scale to the virtual gear. Acceleration is limited by the setpoint
+    // generator in driveVelocity().
     xSpeed *= MAX_METERS_PER_SECOND * translationalRateLimiter;
     ySpeed *= MAX_METERS_PER_SECOND * translationalRateLimiter;
-    angularRotation = rotationalRateLimiter.calculate(angularRotation) * MAX_ANGULAR_SPEED;
+    angularRotation *= MAX_ANGULAR_SPEED;
 
-    SwerveModuleState[] moduleStates;
+    driveVelocity(xSpeed, ySpeed, angularRotation, fieldRelative);
+  }
 
+  /**
+   * Drive the robot from the joysticks, holding the heading while the rotation
+   * input is zero. When a snap target is set, turns to it instead.
+   *
+   * @param xSpeed          Speed of the robot in the x direction (forward).
+   * @param ySpeed          Speed of the robot in the y direction (sideways).
+   * @param angularRotation Speed of the robot's angular rotation, already
+   *                        deadbanded.
+   * @param fieldRelative   Whether x and y speeds are field relative, or not.
+   */
+  public void driveWithHeading(double xSpeed, double ySpeed, double angularRotation, boolean fieldRelative) {
+    // Don't hold a heading from before another command drove (or the robot was
+    // disabled and pushed around).
+    if (headingMode == HeadingMode.HOLD && sensorTimestamp - lastHeadingTimestamp > 2 * TimedRobot.kDefaultPeriod) {
+      headingMode = HeadingMode.OFF;
+    }
+    lastHeadingTimestamp = sensorTimestamp;
+
+    if (angularRotation != 0.0) {
+      // The driver is turning, so let go of the held heading.
+      if (headingMode == HeadingMode.HOLD) {
+        headingMode = HeadingMode.OFF;
+      }
+      drive(xSpeed, ySpeed, angularRotation, fieldRelative);
+      return;
+    }
+
+    if (headingMode == HeadingMode.OFF) {
+      // Let the robot stop turning before capturing the heading to hold, so it
+      // does not swing back.
+      if (!HEADING_HOLD_ENABLED || Math.abs(yawRate) > HEADING_HOLD_CAPTURE_RATE_DEGREES_PER_SECOND) {
+        drive(xSpeed, ySpeed, 0.0, fieldRelative);
+        return;
+      }
+      startHeadingControl(HeadingMode.HOLD, getHeadingRadians());
+    }
+
+    xSpeed *= MAX_METERS_PER_SECOND * translationalRateLimiter;
+    ySpeed *= MAX_METERS_PER_SECOND * translationalRateLimiter;
+    driveVelocity(xSpeed, ySpeed, calculateHeading(), fieldRelative);
+  }
+
+  /**
+   * Sets a yaw for driveWithHeading() to turn to and hold.
+   *
+   * @param yawDegrees The target yaw in degrees, clockwise positive like
+   *                   getYaw(), but in the field frame of field relative
+   *                   driving (so including the gyro angle adjustment).
+   */
+  public void snapToYaw(double yawDegrees) {
+    double goal = Math.toRadians(-yawDegrees);
+    if (headingMode != HeadingMode.SNAP || goal != headingGoal) {
+      startHeadingControl(HeadingMode.SNAP, goal);
+    }
+  }
+
+  /**
+   * Clears the snap target. driveWithHeading() then holds whatever heading the
+   * robot is at.
+   */
+  public void clearHeadingTarget() {
+    headingMode = HeadingMode.OFF;
+  }
+
+  /**
+   * @return whether the robot is at the snap target and has stopped turning.
+   */
+  public boolean atHeadingTarget() {
+    double error = MathUtil.angleModulus(headingGoal - getHeadingRadians());
+    return headingMode == HeadingMode.SNAP
+        && Math.abs(error) < Math.toRadians(HEADING_TOLERANCE_DEGREES)
+        && Math.abs(yawRate) < HEADING_RATE_TOLERANCE_DEGREES_PER_SECOND;
+  }
+
+  private void startHeadingControl(HeadingMode mode, double goal) {
+    headingMode = mode;
+    headingGoal = goal;
+    headingController.reset(getHeadingRadians(), Math.toRadians(yawRate));
+  }
+
+  /**
+   * Profiled P on the heading plus the profile velocity as feedforward. The
+   * derivative is taken from the gyro rate rather than by differencing the
+   * heading, so it is smooth and has no lag.
+   */
+  private double calculateHeading() {
+    double output = headingController.calculate(getHeadingRadians(), headingGoal);
+    double setpointVelocity = headingController.getSetpoint().velocity;
+    return output + setpointVelocity + HEADING_D * (setpointVelocity - Math.toRadians(yawRate));
+  }
+
+  /**
+   * Heading hold and snap work in the same frame as field relative driving:
+   * the continuous angle, which includes the gyro angle adjustment the autos
+   * set at the end.
+   *
+   * @return the heading in counter-clockwise radians (-pi to pi).
+   */
+  private double getHeadingRadians() {
+    return MathUtil.angleModulus(Math.toRadians(continuousAngle));
+  }
+
+  /**
+   * Drive the robot at a velocity from a controller, without the joystick
+   * scaling. The acceleration is still limited by the setpoint generator.
+   *
+   * @param xSpeed        Velocity in the x direction (forward), in m/s.
+   * @param ySpeed        Velocity in the y direction (sideways), in m/s.
+   * @param angularSpeed  Angular velocity, in rad/s (counter-clockwise positive).
+   * @param fieldRelative Whether x and y speeds are field relative, or not.
+   */
+  public void driveVelocity(double xSpeed, double ySpeed, double angularSpeed, boolean fieldRelative) {
     if (fieldRelative) {
-      // field relative driving
-      moduleStates = SWERVE_DRIVE_KINEMATICS.toSwerveModuleStates(
-          ChassisSpeeds.fromFieldRelativeSpeeds(xSpeed, ySpeed, angularRotation,
-              Rotation2d.fromDegrees(getContinuousAngle())));
+      double robotAngle = Math.toRadians(getContinuousAngle());
+      double cos = Math.cos(robotAngle);
+      double sin = Math.sin(robotAngle);
+      double robotXSpeed = xSpeed * cos + ySpeed * sin;
+      double robotYSpeed = -xSpeed * sin + ySpeed * cos;
+      xSpeed = robotXSpeed;
+      ySpeed = robotYSpeed;
+    }
+    angularSpeed = Math.max(-MAX_ANGULAR_SPEED, Math.min(angularSpeed, MAX_ANGULAR_SPEED));
+
+    driveAllocations.start();
+    if (SETPOINT_GENERATOR_ENABLED) {
+      // Don't carry a setpoint across other module commands or a pause in
+      // driving (e.g. disabled).
+      if (!setpointValid || sensorTimestamp - lastSetpointTimestamp > 2 * TimedRobot.kDefaultPeriod) {
+        resetSetpoint();
+      }
+      lastSetpointTimestamp = sensorTimestamp;
+      setpointGenerator.calculate(xSpeed, ySpeed, angularSpeed, TimedRobot.kDefaultPeriod, setpointSpeeds,
+          setpointAngles);
     } else {
-      // robot orientated driving
-      moduleStates = SWERVE_DRIVE_KINEMATICS.toSwerveModuleStates(
-          new ChassisSpeeds(xSpeed, ySpeed, angularRotation));
+      SWERVE_KINEMATICS.toModuleStates(xSpeed, ySpeed, angularSpeed, setpointSpeeds, setpointAngles);
+      SwerveKinematics.desaturate(setpointSpeeds, MAX_METERS_PER_SECOND);
     }
+    applySetpoint();
+    driveAllocations.stop();
+  }
 
-    SwerveDriveKinematics.desaturateWheelSpeeds(moduleStates, MAX_METERS_PER_SECOND);
+  /**
+   * Sends the module setpoints to the modules.
+   */
+  private void applySetpoint() {
+    frontLeftModule.setDesiredState(setpointSpeeds[0], setpointAngles[0]);
+    frontRightModule.setDesiredState(setpointSpeeds[1], setpointAngles[1]);
+    rearLeftModule.setDesiredState(setpointSpeeds[2], setpointAngles[2]);
+    rearRightModule.setDesiredState(setpointSpeeds[3], setpointAngles[3]);
+  }
 
-    frontLeftModule.setDesiredState(moduleStates[0]);
-    frontRightModule.setDesiredState(moduleStates[1]);
-    rearLeftModule.setDesiredState(moduleStates[2]);
-    rearRightModule.setDesiredState(moduleStates[3]);
+  /**
+   * Restarts the setpoint generator from a stopped robot with the wheels where
+   * they are now.
+   */
+  private void resetSetpoint() {
+    setpointAngles[0] = frontLeftModule.getPosition().angleRadians;
+    setpointAngles[1] = frontRightModule.getPosition().angleRadians;
+    setpointAngles[2] = rearLeftModule.getPosition().angleRadians;
+    setpointAngles[3] = rearRightModule.getPosition().angleRadians;
+    setpointGenerator.reset(setpointAngles);
+    setpointValid = true;
   }
 
   /**
    * Sets the wheels into an X formation to prevent movement.
    */
   public void setWheelsToXFormation() {
-    frontLeftModule.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
-    frontRightModule.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearLeftModule.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(-45)));
-    rearRightModule.setDesiredState(new SwerveModuleState(0, Rotation2d.fromDegrees(45)));
+    frontLeftModule.lockAngle(Math.toRadians(45));
+    frontRightModule.lockAngle(Math.toRadians(-45));
+    rearLeftModule.lockAngle(Math.toRadians(-45));
+    rearRightModule.lockAngle(Math.toRadians(45));
+    setpointValid = false;
   }
 
   /**
-   * Sets the swerve ModuleStates.
+   * Sets the swerve ModuleStates directly, bypassing the setpoint generator.
    */
   public void setModuleStates(SwerveModuleState[] desiredStates) {
-    SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, MAX_METERS_PER_SECOND);
-    frontLeftModule.setDesiredState(desiredStates[0]);
-    frontRightModule.setDesiredState(desiredStates[1]);
-    rearLeftModule.setDesiredState(desiredStates[2]);
-    rearRightModule.setDesiredState(desiredStates[3]);
+    setpointValid = false;
+    setpointSpeeds[0] = desiredStates[0].speedMetersPerSecond;
+    setpointSpeeds[1] = desiredStates[1].speedMetersPerSecond;
+    setpointSpeeds[2] = desiredStates[2].speedMetersPerSecond;
+    setpointSpeeds[3] = desiredStates[3].speedMetersPerSecond;
+    setpointAngles[0] = desiredStates[0].angle.getRadians();
+    setpointAngles[1] = desiredStates[1].angle.getRadians();
+    setpointAngles[2] = desiredStates[2].angle.getRadians();
+    setpointAngles[3] = desiredStates[3].angle.getRadians();
+    SwerveKinematics.desaturate(setpointSpeeds, MAX_METERS_PER_SECOND);
+    applySetpoint();
   }
 
   /**
    * Reset the AHRS to zero.
    */
   public void resetGyro() {
-    System.out.println("Resetting the Gyro.");
-    if (navX.getAngleAdjustment() > 0) {
-      navX.setAngleAdjustment(0);
+    Log.info("SwerveDrive", "Resetting the Gyro.");
+    if (gyro.getAngleAdjustment() > 0) {
+      gyro.setAngleAdjustment(0);
     }
-    navX.zeroYaw();
+    gyro.zeroYaw();
+    headingMode = HeadingMode.OFF;
   }
 
   /**
@@ -190,14 +557,23 @@ public class SwerveDrive extends SubsystemBase {
    * @param adjustment The angle adjustment in degrees.
    */
   public void setGyroAngleAdjustment(double adjustment) {
-    navX.setAngleAdjustment(adjustment);
+    gyro.setAngleAdjustment(adjustment);
   }
 
   /**
    * Get the current continuously accruing angle of the AHRS.
    */
   public double getContinuousAngle() {
-    return -navX.getAngle();
+    return continuousAngle;
+  }
+
+  /**
+   * Returns the rate of rotation of the robot.
+   * 
+   * @return The yaw rate in degrees per second (counter-clockwise positive).
+   */
+  public double getYawRate() {
+    return yawRate;
   }
 
   /**
@@ -206,7 +582,7 @@ public class SwerveDrive extends SubsystemBase {
    * @return The current yaw value in degrees (-180 to 180).
    */
   public double getYaw() {
-    return navX.getYaw();
+    return yaw;
   }
 
   /**
@@ -215,7 +591,7 @@ public class SwerveDrive extends SubsystemBase {
    * @return The current pitch value in degrees (-180 to 180).
    */
   public double getPitch() {
-    return navX.getPitch();
+    return pitch;
   }
 
   /**
@@ -224,7 +600,7 @@ public class SwerveDrive extends SubsystemBase {
    * @return The current roll value in degrees (-180 to 180).
    */
   public double getRoll() {
-    return navX.getRoll();
+    return roll;
   }
 
   /**
@@ -252,7 +628,7 @@ public class SwerveDrive extends SubsystemBase {
    * Resets the max Pitch/Roll values.
    */
   public void resetMaxPitchRoll() {
-    System.out.println("Resetting max Pitch/Roll.");
+    Log.info("SwerveDrive", "Resetting max Pitch/Roll.");
     maxPitch = 0;
     maxRoll = 0;
   }
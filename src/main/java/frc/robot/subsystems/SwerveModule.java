@@ -1,132 +1,117 @@
 package frc.robot.subsystems;
 
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.CANSparkMaxLowLevel.MotorType;
-import com.revrobotics.SparkMaxAbsoluteEncoder.Type;
-import com.revrobotics.SparkMaxPIDController;
-import com.revrobotics.AbsoluteEncoder;
-import com.revrobotics.RelativeEncoder;
+import frc.robot.subsystems.io.SwerveModuleIO;
+import frc.robot.util.MutableModulePosition;
+import frc.robot.util.MutableModuleState;
 import static frc.robot.Constants.SwerveModuleConstants.*;
 
 public class SwerveModule {
 
-  private final CANSparkMax drivingSparkMax;
-  private final CANSparkMax turningSparkMax;
+  private final SwerveModuleIO io;
+  private final SwerveModuleIO.Inputs inputs = new SwerveModuleIO.Inputs();
 
-  private final RelativeEncoder drivingEncoder;
-  private final AbsoluteEncoder turningEncoder;
+  private double chassisAngularOffset = 0;
 
-  private final SparkMaxPIDController drivingPIDController;
-  private final SparkMaxPIDController turningPIDController;
+  // Preallocated holders, updated in place so the hot path does not allocate.
+  private final MutableModulePosition modulePosition = new MutableModulePosition();
+  private final MutableModuleState desiredModuleState = new MutableModuleState();
 
-  private double chassisAngularOffset = 0;
-  private SwerveModuleState desiredModuleState = new SwerveModuleState(0.0, new Rotation2d());
+  // Raw turning encoder angle from the last sensor snapshot.
+  private double turningAngle = 0.0;
+
+  // Last raw azimuth setpoint, held while the module is nearly stopped.
+  private double turningSetpoint = 0.0;
+
+  private boolean cosineCompensation = COSINE_COMPENSATION_ENABLED;
+  private boolean angleHold = ANGLE_HOLD_ENABLED;
 
   /**
-   * Constructs and configures the driving and turning motors, encoder, PIDs.
+   * Constructs a swerve module on top of the given hardware.
    * 
-   * @param drivingCANId  The CAN ID of the driving motor.
-   * @param turningCANId  The CAN ID of the turning motor.
+   * @param _io           The module hardware (real or simulated).
    * @param angularOffset The angular offset of the module.
    */
-  public SwerveModule(int drivingCANId, int turningCANId, double angularOffset) {
-
-    drivingSparkMax = new CANSparkMax(drivingCANId, MotorType.kBrushless);
-    turningSparkMax = new CANSparkMax(turningCANId, MotorType.kBrushless);
-
-    // Factory reset, set the SPARKS MAX(s) to a known state before configuration.
-    // This is useful in case a SPARK MAX is swapped out.
-    drivingSparkMax.restoreFactoryDefaults();
-    turningSparkMax.restoreFactoryDefaults();
-
-    // Setup driving encoder and driving PID controller.
-    drivingEncoder = drivingSparkMax.getEncoder();
-    drivingPIDController = drivingSparkMax.getPIDController();
-    drivingPIDController.setFeedbackDevice(drivingEncoder);
-
-    // Setup turning encoder and turning PID controller.
-    turningEncoder = turningSparkMax.getAbsoluteEncoder(Type.kDutyCycle);
-    turningPIDController = turningSparkMax.getPIDController();
-    turningPIDController.setFeedbackDevice(turningEncoder);
-
-    // Calculations required for driving motor conversion factors and feed forward.
-    double drivingMotorFreeSpinRPS = DRIVING_MOTOR_FREE_SPIN_RPM / 60;
-    double wheelCircumferenceInMeters = WHEEL_DIAMETER_IN_METERS * Math.PI;
-
-    // 45 teeth on the driving wheel's bevel gear.
-    // 22 teeth on the first-stage spur gear.
-    // 15 teeth on the bevel pinion.
-    double drivingMotorReduction = (45.0 * 22) / (DRIVING_MOTOR_PINION_TEETH * 15);
-    double driveWheelFreeSpinRPS = (drivingMotorFreeSpinRPS * wheelCircumferenceInMeters) / drivingMotorReduction;
-    double drivingEncoderPositionFactor = (WHEEL_DIAMETER_IN_METERS * Math.PI) / drivingMotorReduction;
-    double drivingEncoderVelocityFactor = ((WHEEL_DIAMETER_IN_METERS * Math.PI) / drivingMotorReduction) / 60.0;
-
-    double turningEncoderPositionFactor = (2 * Math.PI);
-    double turningEncoderVelocityFactor = (2 * Math.PI) / 60.0;
-
-    // Apply position and velocity conversion factors for the driving encoder. The
-    // native units for position and velocity are rotations and RPM, respectively,
-    // but WPILib's swerve APIs want meters and meters per second.
-    drivingEncoder.setPositionConversionFactor(drivingEncoderPositionFactor);
-    drivingEncoder.setVelocityConversionFactor(drivingEncoderVelocityFactor);
-
-    // Apply position and velocity conversion factors for the turning encoder.
-    // WPILib's swerve APIs want these vals in radians and radians per second.
-    turningEncoder.setPositionConversionFactor(turningEncoderPositionFactor);
-    turningEncoder.setVelocityConversionFactor(turningEncoderVelocityFactor);
-
-    // Invert the turning encoder, since the output shaft rotates in the opposite
-    // direction of the steering motor in the REV MAXSwerve Module.
-    turningEncoder.setInverted(true);
-
-    // Enable PID wrap around for the turning motor. This will allow the PID
-    // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
-    // to 10 degrees will go through 0 rather than the longer route.
-    turningPIDController.setPositionPIDWrappingEnabled(true);
-    turningPIDController.setPositionPIDWrappingMinInput(0);
-    turningPIDController.setPositionPIDWrappingMaxInput(turningEncoderPositionFactor);
-
-    // Set the PID gains for the driving motor.
-    drivingPIDController.setP(DRIVING_P);
-    drivingPIDController.setI(DRIVING_I);
-    drivingPIDController.setD(DRIVING_D);
-    drivingPIDController.setFF(DRIVING_FF / driveWheelFreeSpinRPS);
-    drivingPIDController.setOutputRange(-1, 1);
-
-    // Set the PID gains for the turning motor.
-    turningPIDController.setP(TURNING_P);
-    turningPIDController.setI(TURNING_I);
-    turningPIDController.setD(TURNING_D);
-    turningPIDController.setFF(TURNING_FF);
-    turningPIDController.setOutputRange(-1, 1);
-
-    // Set the idle mode (brake or coast).
-    drivingSparkMax.setIdleMode(DRIVING_MOTOR_IDLE_MODE);
-    turningSparkMax.setIdleMode(TURNING_MOTOR_IDLE_MODE);
-
-    // Current Limiting
-    drivingSparkMax.setSmartCurrentLimit(DRIVING_MOTOR_CURRENT_LIMIT);
-    turningSparkMax.setSmartCurrentLimit(TURNING_MOTOR_CURRENT_LIMIT);
-
-    // Save the SPARK MAX configurations.
-    // Note: If a SPARK MAX browns out it will maintain these configurations.
-    drivingSparkMax.burnFlash();
-    turningSparkMax.burnFlash();
-
+  public SwerveModule(SwerveModuleIO _io, double angularOffset) {
+    io = _io;
     chassisAngularOffset = angularOffset;
-    desiredModuleState.angle = new Rotation2d(turningEncoder.getPosition());
-    drivingEncoder.setPosition(0);
+    readSensors();
+    desiredModuleState.angleRadians = turningAngle;
+    turningSetpoint = turningAngle;
+  }
+
+  /**
+   * Turns scaling the drive speed by the cosine of the azimuth error on or
+   * off.
+   */
+  public void setCosineCompensation(boolean enabled) {
+    cosineCompensation = enabled;
+  }
+
+  /**
+   * Turns holding the last azimuth setpoint below ANGLE_HOLD_SPEED on or off.
+   */
+  public void setAngleHold(boolean enabled) {
+    angleHold = enabled;
+  }
+
+  /**
+   * Reads the module encoders once and caches them for the rest of the cycle.
+   */
+  public void readSensors() {
+    io.updateInputs(inputs);
+    turningAngle = inputs.turnAngleRadians;
+    modulePosition.distanceMeters = inputs.drivePositionMeters;
+    modulePosition.angleRadians = turningAngle - chassisAngularOffset;
+  }
+
+  /**
+   * Returns the position of the module from the last sensor snapshot.
+   * 
+   * Note: The returned holder is reused and updated in place by readSensors().
+   */
+  public MutableModulePosition getPosition() {
+    return modulePosition;
+  }
+
+  /**
+   * Returns the distance driven by the module. Safe to call from the odometry
+   * sampler thread since it does not touch the shared position holder.
+   * 
+   * @return The driving distance in meters.
+   */
+  public double getDrivePositionMeters() {
+    return io.getDrivePositionMeters();
+  }
+
+  /**
+   * Returns the angle of the module relative to the chassis. Safe to call from
+   * the odometry sampler thread since it does not touch the shared position
+   * holder.
+   * 
+   * @return The module angle in radians.
+   */
+  public double getAngleRadians() {
+    return io.getTurnAngleRadians() - chassisAngularOffset;
+  }
+
+  /**
+   * Returns the driving velocity from the last sensor snapshot.
+   * 
+   * @return The driving velocity in meters per second.
+   */
+  public double getVelocityMetersPerSecond() {
+    return inputs.driveVelocityMetersPerSecond;
   }
 
   /**
-   * Returns the current position of the module.
+   * Returns the last desired state of the module.
+   * 
+   * Note: The returned holder is reused and updated in place.
    */
-  public SwerveModulePosition getPosition() {
-    return new SwerveModulePosition(drivingEncoder.getPosition(),
-        new Rotation2d(turningEncoder.getPosition() - chassisAngularOffset));
+  public MutableModuleState getDesiredState() {
+    return desiredModuleState;
   }
 
   /**
@@ -135,21 +120,62 @@ public class SwerveModule {
    * @param desiredState The desired state of the swerve modules.
    */
   public void setDesiredState(SwerveModuleState desiredState) {
+    setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getRadians());
+  }
+
+  /**
+   * Sets the desired state (speed and angle) for the module without allocating.
+   * 
+   * @param speedMetersPerSecond The desired speed of the module.
+   * @param angleRadians         The desired angle of the module.
+   */
+  public void setDesiredState(double speedMetersPerSecond, double angleRadians) {
+    if (angleHold && Math.abs(speedMetersPerSecond) < ANGLE_HOLD_SPEED) {
+      // Nearly stopped. Re-aiming here just makes the wheels twitch, so stop
+      // and keep the last angle.
+      io.setDriveVelocity(0.0);
+      io.setTurnPosition(turningSetpoint);
+      desiredModuleState.set(speedMetersPerSecond, angleRadians);
+      return;
+    }
 
     // Apply chassis angular offset to the desired state.
-    SwerveModuleState correctedDesiredState = new SwerveModuleState();
-    correctedDesiredState.speedMetersPerSecond = desiredState.speedMetersPerSecond;
-    correctedDesiredState.angle = desiredState.angle.plus(Rotation2d.fromRadians(chassisAngularOffset));
+    double correctedSpeed = speedMetersPerSecond;
+    double correctedAngle = MathUtil.angleModulus(angleRadians + chassisAngularOffset);
 
     // Optimize the reference state to avoid spinning further than 90 degrees.
-    SwerveModuleState optimizedDesiredState = SwerveModuleState.optimize(correctedDesiredState,
-        new Rotation2d(turningEncoder.getPosition()));
-
-    // Command driving and turning SPARKS MAX towards their respective setpoints.
-    drivingPIDController.setReference(optimizedDesiredState.speedMetersPerSecond, CANSparkMax.ControlType.kVelocity);
-    turningPIDController.setReference(optimizedDesiredState.angle.getRadians(), CANSparkMax.ControlType.kPosition);
+    double delta = MathUtil.angleModulus(correctedAngle - turningAngle);
+    if (Math.abs(delta) > Math.PI / 2) {
+      correctedSpeed = -correctedSpeed;
+      correctedAngle = MathUtil.angleModulus(correctedAngle + Math.PI);
+      delta = MathUtil.angleModulus(correctedAngle - turningAngle);
+    }
+
+    // Only drive at the part of the speed that is along the wheel's current
+    // direction.
+    if (cosineCompensation) {
+      correctedSpeed *= Math.cos(delta);
+    }
+
+    // Command driving and turning motors towards their respective setpoints.
+    io.setDriveVelocity(correctedSpeed);
+    io.setTurnPosition(correctedAngle);
+    turningSetpoint = correctedAngle;
+
+    desiredModuleState.set(speedMetersPerSecond, angleRadians);
+  }
 
-    desiredModuleState = desiredState;
+  /**
+   * Points the module at an angle with the drive stopped, even with the angle
+   * hold on (e.g. for the X formation).
+   * 
+   * @param angleRadians The desired angle of the module.
+   */
+  public void lockAngle(double angleRadians) {
+    turningSetpoint = MathUtil.angleModulus(angleRadians + chassisAngularOffset);
+    io.setDriveVelocity(0.0);
+    io.setTurnPosition(turningSetpoint);
+    desiredModuleState.set(0.0, angleRadians);
   }
 
 }
@@ -0,0 +1,243 @@
+package frc.robot.subsystems;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFieldLayout.OriginPosition;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.Log;
+import frc.robot.util.LoopProfiler;
+import static frc.robot.Constants.VisionConstants.*;
+import static frc.robot.Constants.AlignConstants.*;
+
+/**
+ * Owns the AprilTag camera. The pipeline result is fetched once per cycle in
+ * readSensors() and shared by every command, and (once the camera mount has
+ * been measured, see VISION_POSE_CORRECTION_ENABLED) new AprilTag pose
+ * estimates are fed to the swerve drive pose estimator.
+ *
+ * Commands only read from this subsystem, so they should not require it.
+ */
+public class Vision extends SubsystemBase {
+
+  private final LoopProfiler.Phase periodicPhase = LoopProfiler.phase("Vision Periodic");
+
+  private final SwerveDrive swerveDrive;
+  private final PhotonCamera camera = new PhotonCamera(CAMERA_NAME);
+  private PhotonPoseEstimator visionPoseEstimator;
+  private AprilTagFieldLayout fieldLayout;
+  // Alliance the layout origin was last set for.
+  private Alliance layoutAlliance = null;
+
+  // Where the robot should be, relative to a tag, to align to it.
+  private final Transform2d tagToAlignPose;
+  private int alignTagId = -1;
+
+  // Pipeline result from the last sensor snapshot.
+  private PhotonPipelineResult latestResult = new PhotonPipelineResult();
+  private double resultTimestamp = 0.0;
+  private boolean hasNewResult = false;
+
+  public Vision(SwerveDrive _swerveDrive) {
+    swerveDrive = _swerveDrive;
+
+    // Face the tag with the camera, with the tag at the align position in the
+    // camera frame, then step back from the camera to the robot center.
+    Transform2d robotToCamera = new Transform2d(ROBOT_TO_CAMERA.getTranslation().toTranslation2d(),
+        ROBOT_TO_CAMERA.getRotation().toRotation2d());
+    tagToAlignPose = new Transform2d(new Translation2d(APRILTAG_ALIGN_X_METERS, APRILTAG_ALIGN_Y_METERS),
+        Rotation2d.fromDegrees(180.0)).plus(robotToCamera.inverse());
+
+    try {
+      fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+      visionPoseEstimator = new PhotonPoseEstimator(fieldLayout, PoseStrategy.LOWEST_AMBIGUITY, camera,
+          ROBOT_TO_CAMERA);
+    } catch (IOException e) {
+      Log.warn("Vision", "Unable to load the AprilTag field layout, vision pose correction disabled.");
+      visionPoseEstimator = null;
+      fieldLayout = null;
+    }
+    if (!VISION_POSE_CORRECTION_ENABLED) {
+      Log.warn("Vision", "Camera mount not measured yet, vision pose correction disabled.");
+    }
+  }
+
+  /**
+   * Fetches the latest pipeline result once at the start of the cycle.
+   */
+  public void readSensors() {
+    updateFieldOrigin();
+    latestResult = camera.getLatestResult();
+    double timestamp = latestResult.getTimestampSeconds();
+    hasNewResult = timestamp != resultTimestamp;
+    resultTimestamp = timestamp;
+  }
+
+  /**
+   * Keeps the AprilTag layout in the odometry frame. On red the auto builder
+   * mirrors paths into PathPlanner's red alliance frame, so the layout origin
+   * moves to the red alliance wall to match.
+   */
+  private void updateFieldOrigin() {
+    Alliance alliance = DriverStation.getAlliance();
+    if (fieldLayout == null || alliance == layoutAlliance) {
+      return;
+    }
+    fieldLayout.setOrigin(alliance == Alliance.Red ? OriginPosition.kRedAllianceWallRightSide
+        : OriginPosition.kBlueAllianceWallRightSide);
+    layoutAlliance = alliance;
+  }
+
+  @Override
+  public void periodic() {
+    periodicPhase.begin();
+    // Correct the odometry with any new AprilTag measurement.
+    if (hasNewResult && VISION_POSE_CORRECTION_ENABLED) {
+      updateVisionMeasurement();
+    }
+    periodicPhase.end();
+  }
+
+  /**
+   * Feeds a new AprilTag pose estimate (if any) into the swerve drive pose
+   * estimator at the time the image was captured.
+   */
+  private void updateVisionMeasurement() {
+    if (visionPoseEstimator == null || !latestResult.hasTargets()) {
+      return;
+    }
+
+    // Reject ambiguous or far away single tag solutions.
+    PhotonTrackedTarget target = latestResult.getBestTarget();
+    double tagDistance = target.getBestCameraToTarget().getTranslation().getNorm();
+    if (target.getPoseAmbiguity() > MAX_POSE_AMBIGUITY || tagDistance > MAX_TAG_DISTANCE_METERS) {
+      return;
+    }
+
+    Optional<EstimatedRobotPose> estimate = visionPoseEstimator.update(latestResult);
+    if (estimate.isPresent()) {
+      // Trust the measurement less the further away the tag is.
+      double scale = 1.0 + tagDistance * tagDistance;
+      swerveDrive.addVisionMeasurement(estimate.get().estimatedPose.toPose2d(), estimate.get().timestampSeconds,
+          VISION_STD_DEVS[0] * scale, VISION_STD_DEVS[1] * scale, VISION_STD_DEVS[2] * scale);
+    }
+  }
+
+  /**
+   * @return the pipeline result from the last sensor snapshot.
+   */
+  public PhotonPipelineResult getLatestResult() {
+    return latestResult;
+  }
+
+  /**
+   * @return whether the result from the last sensor snapshot has any targets.
+   */
+  public boolean hasTargets() {
+    return latestResult.hasTargets();
+  }
+
+  /**
+   * @return the best target from the last sensor snapshot, or null if there
+   *         are no targets.
+   */
+  public PhotonTrackedTarget getBestTarget() {
+    return latestResult.hasTargets() ? latestResult.getBestTarget() : null;
+  }
+
+  /**
+   * Returns the target with the given fiducial ID from the last sensor snapshot.
+   * 
+   * @param fiducialId The AprilTag ID.
+   * @return the target, or null if the tag is not in view.
+   */
+  public PhotonTrackedTarget getTarget(int fiducialId) {
+    List<PhotonTrackedTarget> targets = latestResult.getTargets();
+    for (int i = 0; i < targets.size(); i++) {
+      PhotonTrackedTarget target = targets.get(i);
+      if (target.getFiducialId() == fiducialId) {
+        return target;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the field pose that lines the robot up with the best AprilTag in
+   * view, or with the last tag aligned to when none is in view. With vision
+   * pose correction enabled, the robot pose is corrected by the same tags, so
+   * driving to this pose converges on the tag even when the odometry has
+   * drifted.
+   * 
+   * @return the pose, or null if no tag has been seen.
+   */
+  public Pose2d getAlignPose() {
+    PhotonTrackedTarget target = getBestTarget();
+    if (target != null && isFresh()) {
+      alignTagId = target.getFiducialId();
+    }
+    return getAlignPose(alignTagId);
+  }
+
+  /**
+   * Returns the field pose that lines the robot up with an AprilTag.
+   * 
+   * @param fiducialId The AprilTag ID.
+   * @return the pose, or null if the tag is not on the field.
+   */
+  public Pose2d getAlignPose(int fiducialId) {
+    if (fieldLayout == null) {
+      return null;
+    }
+    Optional<Pose3d> tagPose = fieldLayout.getTagPose(fiducialId);
+    if (tagPose.isEmpty()) {
+      return null;
+    }
+    return tagPose.get().toPose2d().transformBy(tagToAlignPose);
+  }
+
+  /**
+   * @return the capture time of the latest result, in FPGA seconds.
+   */
+  public double getTimestampSeconds() {
+    return resultTimestamp;
+  }
+
+  /**
+   * @return the age of the latest result in seconds.
+   */
+  public double getResultAge() {
+    return Timer.getFPGATimestamp() - resultTimestamp;
+  }
+
+  /**
+   * @return whether a new result arrived this cycle.
+   */
+  public boolean hasNewResult() {
+    return hasNewResult;
+  }
+
+  /**
+   * @return whether the latest result is recent enough to act on.
+   */
+  public boolean isFresh() {
+    return getResultAge() < RESULT_TIMEOUT_SECONDS;
+  }
+
+}
@@ -0,0 +1,50 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for the arm motor, encoder and home limit switches.
+ */
+public interface ArmIO {
+
+  /**
+   * Sensor values read from the arm once per cycle.
+   */
+  public static class Inputs {
+    public double positionRadians = 0.0;
+    public double velocityRadiansPerSecond = 0.0;
+    public boolean leftLimitSwitch = true; // false when pressed
+    public boolean rightLimitSwitch = true; // false when pressed
+  }
+
+  /**
+   * Reads the arm sensors into the given inputs.
+   */
+  public void updateInputs(Inputs inputs);
+
+  /**
+   * Commands the arm to a closed loop position.
+   * 
+   * @param positionRadians The arm position.
+   * @param feedforwardVolts The arbitrary feed forward voltage.
+   */
+  public void setPosition(double positionRadians, double feedforwardVolts);
+
+  /**
+   * Commands the arm motor open loop.
+   * 
+   * @param output The motor output (-1 to 1).
+   */
+  public void set(double output);
+
+  /**
+   * Resets the arm encoder to zero.
+   */
+  public void resetEncoder();
+
+  /**
+   * Sets the arm motor idle mode.
+   * 
+   * @param brake True for brake mode, false for coast mode.
+   */
+  public void setBrakeMode(boolean brake);
+
+}
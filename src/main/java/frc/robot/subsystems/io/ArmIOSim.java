@@ -0,0 +1,90 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import static frc.robot.Constants.ArmConstants.*;
+
+/**
+ * Simulated arm. The arm is modeled as a single jointed arm with gravity, and
+ * the SparkMax position loop is run here with the same P gain and soft limits.
+ * The limit switches read pressed while the arm rests at home.
+ */
+public class ArmIOSim implements ArmIO {
+
+  private final SingleJointedArmSim armSim = new SingleJointedArmSim(
+      DCMotor.getNEO(1),
+      1.0 / ARM_GEAR_RATIO,
+      SingleJointedArmSim.estimateMOI(SIM_ARM_LENGTH_METERS, SIM_ARM_MASS_KG),
+      SIM_ARM_LENGTH_METERS,
+      SOFT_LIMIT_REVERSE + ARM_ZERO_COSINE_OFFSET,
+      SOFT_LIMIT_FORWARD + ARM_ZERO_COSINE_OFFSET,
+      true);
+
+  private boolean closedLoop = false;
+  private double positionSetpoint = 0.0;
+  private double feedforwardVolts = 0.0;
+  private double openLoopOutput = 0.0;
+  private double encoderOffset = 0.0;
+
+  public ArmIOSim() {
+    armSim.setState(ARM_ZERO_COSINE_OFFSET, 0.0);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    double position = getArmPosition() - encoderOffset;
+
+    double output;
+    if (closedLoop) {
+      output = ARM_DEFAULT_P * (positionSetpoint - position) + feedforwardVolts / 12.0;
+    } else {
+      output = openLoopOutput;
+    }
+
+    // Soft limits, like the SparkMax.
+    if ((output > 0 && position >= SOFT_LIMIT_FORWARD) || (output < 0 && position <= SOFT_LIMIT_REVERSE)) {
+      output = 0.0;
+    }
+
+    armSim.setInputVoltage(12.0 * MathUtil.clamp(output, -1.0, 1.0));
+    armSim.update(TimedRobot.kDefaultPeriod);
+
+    boolean atHome = getArmPosition() <= 0.01;
+    inputs.positionRadians = getArmPosition() - encoderOffset;
+    inputs.velocityRadiansPerSecond = armSim.getVelocityRadPerSec();
+    inputs.leftLimitSwitch = !atHome;
+    inputs.rightLimitSwitch = !atHome;
+  }
+
+  /**
+   * Returns the true arm position measured from home.
+   */
+  private double getArmPosition() {
+    return armSim.getAngleRads() - ARM_ZERO_COSINE_OFFSET;
+  }
+
+  @Override
+  public void setPosition(double positionRadians, double _feedforwardVolts) {
+    closedLoop = true;
+    positionSetpoint = positionRadians;
+    feedforwardVolts = _feedforwardVolts;
+  }
+
+  @Override
+  public void set(double output) {
+    closedLoop = false;
+    openLoopOutput = output;
+  }
+
+  @Override
+  public void resetEncoder() {
+    encoderOffset = getArmPosition();
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+  }
+
+}
@@ -0,0 +1,82 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMax.SoftLimitDirection;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
+import com.revrobotics.SparkMaxRelativeEncoder.Type;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.Constants.CANID;
+import frc.robot.util.LazySparkMax;
+import frc.robot.util.SparkMaxStatusProfile;
+import static frc.robot.Constants.ArmConstants.*;
+
+/**
+ * Arm hardware: a NEO on a SparkMax with two home limit switches.
+ */
+public class ArmIOSparkMax implements ArmIO {
+
+  private CANSparkMax armMotor;
+  private LazySparkMax armOutput;
+  private RelativeEncoder armEncoder;
+  private DigitalInput leftArmLimitSwitch;
+  private DigitalInput rightArmLimitSwitch;
+  private SparkMaxPIDController armPIDController;
+
+  public ArmIOSparkMax() {
+
+    leftArmLimitSwitch = new DigitalInput(ARM_LEFT_LIMIT_SWITCH_DIO_CHANNEL);
+    rightArmLimitSwitch = new DigitalInput(ARM_RIGHT_LIMIT_SWITCH_DIO_CHANNEL);
+
+    armMotor = new CANSparkMax(CANID.ARM_SPARKMAX, MotorType.kBrushless);
+    armEncoder = armMotor.getEncoder(Type.kHallSensor, 42);
+
+    armMotor.setInverted(false);
+    armMotor.setSmartCurrentLimit(ARM_CURRENT_LIMIT);
+    armMotor.enableSoftLimit(SoftLimitDirection.kForward, true);
+    armMotor.enableSoftLimit(SoftLimitDirection.kReverse, true);
+    armMotor.setSoftLimit(SoftLimitDirection.kForward, (float) SOFT_LIMIT_FORWARD);
+    armMotor.setSoftLimit(SoftLimitDirection.kReverse, (float) SOFT_LIMIT_REVERSE);
+    armMotor.setIdleMode(IdleMode.kBrake);
+    armEncoder.setPositionConversionFactor(POSITION_CONVERSION_FACTOR);
+    armEncoder.setVelocityConversionFactor(VELOCITY_CONVERSION_FACTOR);
+    armPIDController = armMotor.getPIDController();
+    armPIDController.setP(ARM_DEFAULT_P);
+    armPIDController.setI(ARM_DEFAULT_I);
+    armPIDController.setD(ARM_DEFAULT_D);
+    armMotor.burnFlash();
+    SparkMaxStatusProfile.ARM.apply(armMotor);
+    armOutput = new LazySparkMax(armMotor, "Arm");
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.positionRadians = armEncoder.getPosition();
+    inputs.velocityRadiansPerSecond = armEncoder.getVelocity();
+    inputs.leftLimitSwitch = leftArmLimitSwitch.get();
+    inputs.rightLimitSwitch = rightArmLimitSwitch.get();
+  }
+
+  @Override
+  public void setPosition(double positionRadians, double feedforwardVolts) {
+    armOutput.setReference(positionRadians, CANSparkMax.ControlType.kPosition, 0, feedforwardVolts);
+  }
+
+  @Override
+  public void set(double output) {
+    armOutput.set(output);
+  }
+
+  @Override
+  public void resetEncoder() {
+    armEncoder.setPosition(0.0);
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    armMotor.setIdleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
+  }
+
+}
@@ -0,0 +1,34 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for the gripper roller, pincher piston and limit switch.
+ */
+public interface GripperIO {
+
+  /**
+   * Sensor values read from the gripper once per cycle.
+   */
+  public static class Inputs {
+    public boolean limitSwitch = true;
+  }
+
+  /**
+   * Reads the gripper sensors into the given inputs.
+   */
+  public void updateInputs(Inputs inputs);
+
+  /**
+   * Sets the roller motor output.
+   * 
+   * @param output The motor output (-1 to 1).
+   */
+  public void setMotor(double output);
+
+  /**
+   * Sets the pincher piston.
+   * 
+   * @param extended True to close the gripper.
+   */
+  public void setPiston(boolean extended);
+
+}
@@ -0,0 +1,26 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Simulated gripper. Nothing is ever held, so the limit switch stays released.
+ */
+public class GripperIOSim implements GripperIO {
+
+  private double motorOutput = 0.0;
+  private boolean pistonExtended = false;
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.limitSwitch = true;
+  }
+
+  @Override
+  public void setMotor(double output) {
+    motorOutput = output;
+  }
+
+  @Override
+  public void setPiston(boolean extended) {
+    pistonExtended = extended;
+  }
+
+}
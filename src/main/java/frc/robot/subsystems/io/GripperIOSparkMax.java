@@ -0,0 +1,57 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.PneumaticsModuleType;
+import edu.wpi.first.wpilibj.Solenoid;
+import frc.robot.Constants.CANID;
+import frc.robot.util.LazySolenoid;
+import frc.robot.util.LazySparkMax;
+import frc.robot.util.SparkMaxStatusProfile;
+import static frc.robot.Constants.GripperConstants.*;
+
+/**
+ * Gripper hardware: a NEO roller, a pincher solenoid and a limit switch.
+ */
+public class GripperIOSparkMax implements GripperIO {
+
+  private LazySparkMax gripperMotor;
+  private LazySolenoid gripperPiston;
+  private DigitalInput gripperLimitSwitch;
+
+  public GripperIOSparkMax() {
+
+    // Gripper Motor
+    CANSparkMax gripperSparkMax = new CANSparkMax(CANID.GRIPPER_SPARKMAX, MotorType.kBrushless);
+    gripperSparkMax.restoreFactoryDefaults();
+    gripperSparkMax.setIdleMode(IdleMode.kBrake);
+    gripperSparkMax.setInverted(false);
+    SparkMaxStatusProfile.OPEN_LOOP_ROLLER.apply(gripperSparkMax);
+    gripperMotor = new LazySparkMax(gripperSparkMax, "Gripper");
+
+    // Gripper Piston/Pincher
+    gripperPiston = new LazySolenoid(new Solenoid(PneumaticsModuleType.CTREPCM, PINCHER_SOLENOID_CHANNEL),
+        "Gripper Piston");
+
+    // Gripper Limit Switch
+    gripperLimitSwitch = new DigitalInput(GRIPPER_LIMIT_SWITCH_DIO_CHANNEL);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.limitSwitch = gripperLimitSwitch.get();
+  }
+
+  @Override
+  public void setMotor(double output) {
+    gripperMotor.set(output);
+  }
+
+  @Override
+  public void setPiston(boolean extended) {
+    gripperPiston.set(extended);
+  }
+
+}
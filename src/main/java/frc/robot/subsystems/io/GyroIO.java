@@ -0,0 +1,66 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for the gyro. Angles follow the NavX convention
+ * (clockwise positive, degrees).
+ */
+public interface GyroIO {
+
+  /**
+   * Sensor values read from the gyro once per cycle.
+   */
+  public static class Inputs {
+    public double angleDegrees = 0.0; // continuous, includes angle adjustment
+    public double yawDegrees = 0.0;
+    public double pitchDegrees = 0.0;
+    public double rollDegrees = 0.0;
+    public double rateDegreesPerSecond = 0.0;
+  }
+
+  /**
+   * Reads the gyro into the given inputs.
+   */
+  public void updateInputs(Inputs inputs);
+
+  /**
+   * Reads the continuous angle directly. Must be safe to call from the odometry
+   * sampler thread.
+   * 
+   * @return The continuous angle in degrees (clockwise positive).
+   */
+  public double getAngleDegrees();
+
+  /**
+   * Starts a gyro calibration.
+   */
+  public void calibrate();
+
+  /**
+   * Zeroes the yaw.
+   */
+  public void zeroYaw();
+
+  /**
+   * Returns the angle adjustment added to the continuous angle.
+   */
+  public double getAngleAdjustment();
+
+  /**
+   * Sets the angle adjustment added to the continuous angle.
+   * 
+   * @param adjustment The angle adjustment in degrees.
+   */
+  public void setAngleAdjustment(double adjustment);
+
+  /**
+   * Advances a simulated gyro by the chassis rotation. Does nothing on the
+   * robot.
+   * 
+   * @param omegaRadiansPerSecond The chassis angular velocity (counter-clockwise
+   *                              positive).
+   * @param dtSeconds             The time step.
+   */
+  public default void updateSimulation(double omegaRadiansPerSecond, double dtSeconds) {
+  }
+
+}
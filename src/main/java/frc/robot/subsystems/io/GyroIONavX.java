@@ -0,0 +1,56 @@
+package frc.robot.subsystems.io;
+
+import com.kauailabs.navx.frc.AHRS;
+import edu.wpi.first.wpilibj.SPI;
+
+/**
+ * NavX MXP gyro on the SPI port.
+ */
+public class GyroIONavX implements GyroIO {
+
+  private final AHRS navX;
+
+  /**
+   * Creates the NavX.
+   * 
+   * @param updateRateHz The NavX update rate (4 to 200 Hz).
+   */
+  public GyroIONavX(byte updateRateHz) {
+    navX = new AHRS(SPI.Port.kMXP, updateRateHz);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.angleDegrees = navX.getAngle();
+    inputs.yawDegrees = navX.getYaw();
+    inputs.pitchDegrees = navX.getPitch();
+    inputs.rollDegrees = navX.getRoll();
+    inputs.rateDegreesPerSecond = navX.getRate();
+  }
+
+  @Override
+  public double getAngleDegrees() {
+    return navX.getAngle();
+  }
+
+  @Override
+  public void calibrate() {
+    navX.calibrate();
+  }
+
+  @Override
+  public void zeroYaw() {
+    navX.zeroYaw();
+  }
+
+  @Override
+  public double getAngleAdjustment() {
+    return navX.getAngleAdjustment();
+  }
+
+  @Override
+  public void setAngleAdjustment(double adjustment) {
+    navX.setAngleAdjustment(adjustment);
+  }
+
+}
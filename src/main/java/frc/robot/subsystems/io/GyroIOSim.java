@@ -0,0 +1,54 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Simulated gyro that integrates the chassis rotation reported by the swerve
+ * modules. Pitch and roll stay level.
+ */
+public class GyroIOSim implements GyroIO {
+
+  // Read by the odometry sampler thread.
+  private volatile double yawDegrees = 0.0;
+  private volatile double angleAdjustment = 0.0;
+  private double rateDegreesPerSecond = 0.0;
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.angleDegrees = getAngleDegrees();
+    inputs.yawDegrees = Math.IEEEremainder(yawDegrees, 360.0);
+    inputs.pitchDegrees = 0.0;
+    inputs.rollDegrees = 0.0;
+    inputs.rateDegreesPerSecond = rateDegreesPerSecond;
+  }
+
+  @Override
+  public double getAngleDegrees() {
+    return yawDegrees + angleAdjustment;
+  }
+
+  @Override
+  public void calibrate() {
+  }
+
+  @Override
+  public void zeroYaw() {
+    yawDegrees = 0.0;
+  }
+
+  @Override
+  public double getAngleAdjustment() {
+    return angleAdjustment;
+  }
+
+  @Override
+  public void setAngleAdjustment(double adjustment) {
+    angleAdjustment = adjustment;
+  }
+
+  @Override
+  public void updateSimulation(double omegaRadiansPerSecond, double dtSeconds) {
+    // The NavX is clockwise positive.
+    rateDegreesPerSecond = -Math.toDegrees(omegaRadiansPerSecond);
+    yawDegrees += rateDegreesPerSecond * dtSeconds;
+  }
+
+}
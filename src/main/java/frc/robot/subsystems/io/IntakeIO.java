@@ -0,0 +1,43 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for the intake rollers, intake pistons and lifter pistons.
+ */
+public interface IntakeIO {
+
+  /**
+   * Sensor values read from the intake once per cycle.
+   */
+  public static class Inputs {
+    public double leftCurrentAmps = 0.0;
+    public double rightCurrentAmps = 0.0;
+  }
+
+  /**
+   * Reads the intake sensors into the given inputs.
+   */
+  public void updateInputs(Inputs inputs);
+
+  /**
+   * Sets the roller motor outputs.
+   * 
+   * @param left  The left motor output (-1 to 1).
+   * @param right The right motor output (-1 to 1).
+   */
+  public void setMotors(double left, double right);
+
+  /**
+   * Sets the intake pistons.
+   * 
+   * @param extended True to close the intake.
+   */
+  public void setIntakePistons(boolean extended);
+
+  /**
+   * Sets the lifter pistons.
+   * 
+   * @param extended True to lower the intake.
+   */
+  public void setLifterPistons(boolean extended);
+
+}
@@ -0,0 +1,38 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.Constants.IntakeConstants.*;
+
+/**
+ * Simulated intake. Holds the commanded outputs. No game piece is ever
+ * loaded, so the rollers draw their free current.
+ */
+public class IntakeIOSim implements IntakeIO {
+
+  private double leftOutput = 0.0;
+  private double rightOutput = 0.0;
+  private boolean intakePistonsExtended = false;
+  private boolean lifterPistonsExtended = false;
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.leftCurrentAmps = Math.abs(leftOutput) * SIM_ROLLER_FREE_CURRENT_AMPS;
+    inputs.rightCurrentAmps = Math.abs(rightOutput) * SIM_ROLLER_FREE_CURRENT_AMPS;
+  }
+
+  @Override
+  public void setMotors(double left, double right) {
+    leftOutput = left;
+    rightOutput = right;
+  }
+
+  @Override
+  public void setIntakePistons(boolean extended) {
+    intakePistonsExtended = extended;
+  }
+
+  @Override
+  public void setLifterPistons(boolean extended) {
+    lifterPistonsExtended = extended;
+  }
+
+}
@@ -0,0 +1,73 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.PneumaticsModuleType;
+import edu.wpi.first.wpilibj.Solenoid;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import frc.robot.Constants.CANID;
+import frc.robot.util.LazySolenoid;
+import frc.robot.util.LazySparkMax;
+import frc.robot.util.SparkMaxStatusProfile;
+import static frc.robot.Constants.IntakeConstants.*;
+
+/**
+ * Intake hardware: two NEO rollers, the intake pistons and the lifter pistons.
+ */
+public class IntakeIOSparkMax implements IntakeIO {
+
+  private LazySparkMax intakeMotorLeft;
+  private LazySparkMax intakeMotorRight;
+  private LazySolenoid intakePistons;
+  private LazySolenoid lifterPistons;
+
+  public IntakeIOSparkMax() {
+
+    // Intake Motor Left
+    CANSparkMax intakeSparkMaxLeft = new CANSparkMax(CANID.LEFT_INTAKE_SPARKMAX, MotorType.kBrushless);
+    intakeSparkMaxLeft.restoreFactoryDefaults();
+    intakeSparkMaxLeft.setIdleMode(IdleMode.kBrake);
+    intakeSparkMaxLeft.setInverted(false);
+    SparkMaxStatusProfile.SENSED_ROLLER.apply(intakeSparkMaxLeft);
+    intakeMotorLeft = new LazySparkMax(intakeSparkMaxLeft, "Intake Left");
+
+    // Intake Motor Right
+    CANSparkMax intakeSparkMaxRight = new CANSparkMax(CANID.RIGHT_INTAKE_SPARKMAX, MotorType.kBrushless);
+    intakeSparkMaxRight.restoreFactoryDefaults();
+    intakeSparkMaxRight.setIdleMode(IdleMode.kBrake);
+    intakeSparkMaxRight.setInverted(false);
+    SparkMaxStatusProfile.SENSED_ROLLER.apply(intakeSparkMaxRight);
+    intakeMotorRight = new LazySparkMax(intakeSparkMaxRight, "Intake Right");
+
+    // Intake Pistons
+    intakePistons = new LazySolenoid(new Solenoid(PneumaticsModuleType.CTREPCM, INTAKE_PISTON_SOLENOID_CHANNEL),
+        "Intake Pistons");
+
+    // Lifter Pistons
+    lifterPistons = new LazySolenoid(new Solenoid(PneumaticsModuleType.CTREPCM, LIFTER_PISTON_SOLENOID_CHANNEL),
+        "Lifter Pistons");
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.leftCurrentAmps = intakeMotorLeft.getMotor().getOutputCurrent();
+    inputs.rightCurrentAmps = intakeMotorRight.getMotor().getOutputCurrent();
+  }
+
+  @Override
+  public void setMotors(double left, double right) {
+    intakeMotorLeft.set(left);
+    intakeMotorRight.set(right);
+  }
+
+  @Override
+  public void setIntakePistons(boolean extended) {
+    intakePistons.set(extended);
+  }
+
+  @Override
+  public void setLifterPistons(boolean extended) {
+    lifterPistons.set(extended);
+  }
+
+}
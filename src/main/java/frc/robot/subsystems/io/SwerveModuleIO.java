@@ -0,0 +1,52 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for a single swerve module (driving and turning motors).
+ */
+public interface SwerveModuleIO {
+
+  /**
+   * Sensor values read from the module once per cycle.
+   */
+  public static class Inputs {
+    public double drivePositionMeters = 0.0;
+    public double driveVelocityMetersPerSecond = 0.0;
+    public double turnAngleRadians = 0.0; // absolute encoder, 0 to 2pi
+  }
+
+  /**
+   * Reads the module sensors into the given inputs.
+   */
+  public void updateInputs(Inputs inputs);
+
+  /**
+   * Reads the driving distance directly. Must be safe to call from the
+   * odometry sampler thread.
+   * 
+   * @return The driving distance in meters.
+   */
+  public double getDrivePositionMeters();
+
+  /**
+   * Reads the absolute turning angle directly. Must be safe to call from the
+   * odometry sampler thread.
+   * 
+   * @return The turning angle in radians (0 to 2pi).
+   */
+  public double getTurnAngleRadians();
+
+  /**
+   * Commands the driving motor to a closed loop velocity.
+   * 
+   * @param metersPerSecond The wheel speed.
+   */
+  public void setDriveVelocity(double metersPerSecond);
+
+  /**
+   * Commands the turning motor to a closed loop absolute angle.
+   * 
+   * @param radians The module angle.
+   */
+  public void setTurnPosition(double radians);
+
+}
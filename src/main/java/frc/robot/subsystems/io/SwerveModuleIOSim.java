@@ -0,0 +1,93 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import static frc.robot.Constants.SwerveModuleConstants.*;
+
+/**
+ * Simulated swerve module. The driving motor is modeled as a flywheel and the
+ * turning motor as a DC motor, each closed loop with the same gains the
+ * SparkMax runs on the robot.
+ */
+public class SwerveModuleIOSim implements SwerveModuleIO {
+
+  private final FlywheelSim driveSim = new FlywheelSim(DCMotor.getNEO(1), DRIVING_MOTOR_REDUCTION, SIM_DRIVE_MOI);
+  private final DCMotorSim turnSim = new DCMotorSim(DCMotor.getNeo550(1), TURNING_MOTOR_REDUCTION, SIM_TURN_MOI);
+
+  private final double wheelRadiusMeters = WHEEL_DIAMETER_IN_METERS / 2.0;
+
+  private double driveSetpoint = 0.0;
+  private double turnSetpoint = 0.0;
+
+  // Read by the odometry sampler thread.
+  private volatile double drivePositionMeters = 0.0;
+  private volatile double turnAngleRadians;
+
+  /**
+   * Creates a simulated module with the turning motor at zero.
+   */
+  public SwerveModuleIOSim() {
+    this(0.0);
+  }
+
+  /**
+   * Creates a simulated module starting at a given turning angle, e.g. to
+   * simulate a module left at an arbitrary angle after power on. The start is
+   * deterministic, so simulation runs and benchmarks are repeatable.
+   *
+   * @param initialAngleRadians The starting turning angle in radians.
+   */
+  public SwerveModuleIOSim(double initialAngleRadians) {
+    turnAngleRadians = initialAngleRadians;
+    turnSim.setState(turnAngleRadians, 0.0);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    double dt = TimedRobot.kDefaultPeriod;
+
+    // Driving velocity loop (SparkMax P + velocity feed forward).
+    double velocity = driveSim.getAngularVelocityRadPerSec() * wheelRadiusMeters;
+    double driveOutput = DRIVING_P * (driveSetpoint - velocity) + DRIVING_FF / DRIVE_WHEEL_FREE_SPEED_MPS * driveSetpoint;
+    driveSim.setInputVoltage(12.0 * MathUtil.clamp(driveOutput, -1.0, 1.0));
+    driveSim.update(dt);
+
+    // Turning position loop with PID wrapping.
+    double turnError = MathUtil.angleModulus(turnSetpoint - turnSim.getAngularPositionRad());
+    double turnOutput = TURNING_P * turnError;
+    turnSim.setInputVoltage(12.0 * MathUtil.clamp(turnOutput, -1.0, 1.0));
+    turnSim.update(dt);
+
+    velocity = driveSim.getAngularVelocityRadPerSec() * wheelRadiusMeters;
+    drivePositionMeters += velocity * dt;
+    turnAngleRadians = MathUtil.inputModulus(turnSim.getAngularPositionRad(), 0.0, 2.0 * Math.PI);
+
+    inputs.drivePositionMeters = drivePositionMeters;
+    inputs.driveVelocityMetersPerSecond = velocity;
+    inputs.turnAngleRadians = turnAngleRadians;
+  }
+
+  @Override
+  public double getDrivePositionMeters() {
+    return drivePositionMeters;
+  }
+
+  @Override
+  public double getTurnAngleRadians() {
+    return turnAngleRadians;
+  }
+
+  @Override
+  public void setDriveVelocity(double metersPerSecond) {
+    driveSetpoint = metersPerSecond;
+  }
+
+  @Override
+  public void setTurnPosition(double radians) {
+    turnSetpoint = radians;
+  }
+
+}
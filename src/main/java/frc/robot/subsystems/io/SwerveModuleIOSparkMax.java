@@ -0,0 +1,151 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.AbsoluteEncoder;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxAbsoluteEncoder.Type;
+import com.revrobotics.SparkMaxPIDController;
+import frc.robot.util.LazySparkMax;
+import frc.robot.util.SparkMaxStatusProfile;
+import static frc.robot.Constants.SwerveModuleConstants.*;
+
+/**
+ * REV MAXSwerve module hardware: a NEO driving motor and a NEO 550 turning
+ * motor with a through bore absolute encoder, both on SparkMax controllers.
+ */
+public class SwerveModuleIOSparkMax implements SwerveModuleIO {
+
+  private final CANSparkMax drivingSparkMax;
+  private final CANSparkMax turningSparkMax;
+
+  private final RelativeEncoder drivingEncoder;
+  private final AbsoluteEncoder turningEncoder;
+
+  private final SparkMaxPIDController drivingPIDController;
+  private final SparkMaxPIDController turningPIDController;
+
+  // Setpoint writers that skip unchanged setpoints.
+  private final LazySparkMax drivingOutput;
+  private final LazySparkMax turningOutput;
+
+  /**
+   * Constructs and configures the driving and turning motors, encoder, PIDs.
+   * 
+   * @param drivingCANId The CAN ID of the driving motor.
+   * @param turningCANId The CAN ID of the turning motor.
+   */
+  public SwerveModuleIOSparkMax(int drivingCANId, int turningCANId) {
+
+    drivingSparkMax = new CANSparkMax(drivingCANId, MotorType.kBrushless);
+    turningSparkMax = new CANSparkMax(turningCANId, MotorType.kBrushless);
+
+    // Factory reset, set the SPARKS MAX(s) to a known state before configuration.
+    // This is useful in case a SPARK MAX is swapped out.
+    drivingSparkMax.restoreFactoryDefaults();
+    turningSparkMax.restoreFactoryDefaults();
+
+    // Setup driving encoder and driving PID controller.
+    drivingEncoder = drivingSparkMax.getEncoder();
+    drivingPIDController = drivingSparkMax.getPIDController();
+    drivingPIDController.setFeedbackDevice(drivingEncoder);
+
+    // Setup turning encoder and turning PID controller.
+    turningEncoder = turningSparkMax.getAbsoluteEncoder(Type.kDutyCycle);
+    turningPIDController = turningSparkMax.getPIDController();
+    turningPIDController.setFeedbackDevice(turningEncoder);
+
+    drivingOutput = new LazySparkMax(drivingSparkMax, "Drive " + drivingCANId);
+    turningOutput = new LazySparkMax(turningSparkMax, "Turn " + turningCANId);
+
+    double drivingEncoderPositionFactor = WHEEL_CIRCUMFERENCE_IN_METERS / DRIVING_MOTOR_REDUCTION;
+    double drivingEncoderVelocityFactor = (WHEEL_CIRCUMFERENCE_IN_METERS / DRIVING_MOTOR_REDUCTION) / 60.0;
+
+    double turningEncoderPositionFactor = (2 * Math.PI);
+    double turningEncoderVelocityFactor = (2 * Math.PI) / 60.0;
+
+    // Apply position and velocity conversion factors for the driving encoder. The
+    // native units for position and velocity are rotations and RPM, respectively,
+    // but WPILib's swerve APIs want meters and meters per second.
+    drivingEncoder.setPositionConversionFactor(drivingEncoderPositionFactor);
+    drivingEncoder.setVelocityConversionFactor(drivingEncoderVelocityFactor);
+
+    // Apply position and velocity conversion factors for the turning encoder.
+    // WPILib's swerve APIs want these vals in radians and radians per second.
+    turningEncoder.setPositionConversionFactor(turningEncoderPositionFactor);
+    turningEncoder.setVelocityConversionFactor(turningEncoderVelocityFactor);
+
+    // Invert the turning encoder, since the output shaft rotates in the opposite
+    // direction of the steering motor in the REV MAXSwerve Module.
+    turningEncoder.setInverted(true);
+
+    // Enable PID wrap around for the turning motor. This will allow the PID
+    // controller to go through 0 to get to the setpoint i.e. going from 350 degrees
+    // to 10 degrees will go through 0 rather than the longer route.
+    turningPIDController.setPositionPIDWrappingEnabled(true);
+    turningPIDController.setPositionPIDWrappingMinInput(0);
+    turningPIDController.setPositionPIDWrappingMaxInput(turningEncoderPositionFactor);
+
+    // Set the PID gains for the driving motor.
+    drivingPIDController.setP(DRIVING_P);
+    drivingPIDController.setI(DRIVING_I);
+    drivingPIDController.setD(DRIVING_D);
+    drivingPIDController.setFF(DRIVING_FF / DRIVE_WHEEL_FREE_SPEED_MPS);
+    drivingPIDController.setOutputRange(-1, 1);
+
+    // Set the PID gains for the turning motor.
+    turningPIDController.setP(TURNING_P);
+    turningPIDController.setI(TURNING_I);
+    turningPIDController.setD(TURNING_D);
+    turningPIDController.setFF(TURNING_FF);
+    turningPIDController.setOutputRange(-1, 1);
+
+    // Set the idle mode (brake or coast).
+    drivingSparkMax.setIdleMode(DRIVING_MOTOR_IDLE_MODE);
+    turningSparkMax.setIdleMode(TURNING_MOTOR_IDLE_MODE);
+
+    // Current Limiting
+    drivingSparkMax.setSmartCurrentLimit(DRIVING_MOTOR_CURRENT_LIMIT);
+    turningSparkMax.setSmartCurrentLimit(TURNING_MOTOR_CURRENT_LIMIT);
+
+    // Save the SPARK MAX configurations.
+    // Note: If a SPARK MAX browns out it will maintain these configurations.
+    drivingSparkMax.burnFlash();
+    turningSparkMax.burnFlash();
+
+    // Report the driving position and absolute turning angle as often as the
+    // odometry sampler reads them, and slow down everything else.
+    SparkMaxStatusProfile.DRIVE.apply(drivingSparkMax);
+    SparkMaxStatusProfile.AZIMUTH.apply(turningSparkMax);
+
+    drivingEncoder.setPosition(0);
+  }
+
+  @Override
+  public void updateInputs(Inputs inputs) {
+    inputs.drivePositionMeters = drivingEncoder.getPosition();
+    inputs.driveVelocityMetersPerSecond = drivingEncoder.getVelocity();
+    inputs.turnAngleRadians = turningEncoder.getPosition();
+  }
+
+  @Override
+  public double getDrivePositionMeters() {
+    return drivingEncoder.getPosition();
+  }
+
+  @Override
+  public double getTurnAngleRadians() {
+    return turningEncoder.getPosition();
+  }
+
+  @Override
+  public void setDriveVelocity(double metersPerSecond) {
+    drivingOutput.setReference(metersPerSecond, CANSparkMax.ControlType.kVelocity);
+  }
+
+  @Override
+  public void setTurnPosition(double radians) {
+    turningOutput.setReference(radians, CANSparkMax.ControlType.kPosition);
+  }
+
+}
@@ -0,0 +1,16 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Hardware interface for the uprighter rollers.
+ */
+public interface UprighterIO {
+
+  /**
+   * Sets the roller motor outputs.
+   * 
+   * @param left  The left motor output (-1 to 1).
+   * @param right The right motor output (-1 to 1).
+   */
+  public void setMotors(double left, double right);
+
+}
@@ -0,0 +1,17 @@
+package frc.robot.subsystems.io;
+
+/**
+ * Simulated uprighter. Holds the commanded outputs.
+ */
+public class UprighterIOSim implements UprighterIO {
+
+  private double leftOutput = 0.0;
+  private double rightOutput = 0.0;
+
+  @Override
+  public void setMotors(double left, double right) {
+    leftOutput = left;
+    rightOutput = right;
+  }
+
+}
@@ -0,0 +1,43 @@
+package frc.robot.subsystems.io;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.IdleMode;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import frc.robot.Constants.CANID;
+import frc.robot.util.LazySparkMax;
+import frc.robot.util.SparkMaxStatusProfile;
+
+/**
+ * Uprighter hardware: two NEO rollers.
+ */
+public class UprighterIOSparkMax implements UprighterIO {
+
+  private LazySparkMax uprighterMotorLeft;
+  private LazySparkMax uprighterMotorRight;
+
+  public UprighterIOSparkMax() {
+
+    // Uprighter Motor Left
+    CANSparkMax uprighterSparkMaxLeft = new CANSparkMax(CANID.LEFT_UPRIGHTER_SPARKMAX, MotorType.kBrushless);
+    uprighterSparkMaxLeft.restoreFactoryDefaults();
+    uprighterSparkMaxLeft.setIdleMode(IdleMode.kBrake);
+    uprighterSparkMaxLeft.setInverted(false);
+    SparkMaxStatusProfile.OPEN_LOOP_ROLLER.apply(uprighterSparkMaxLeft);
+    uprighterMotorLeft = new LazySparkMax(uprighterSparkMaxLeft, "Uprighter Left");
+
+    // Uprighter Motor Right
+    CANSparkMax uprighterSparkMaxRight = new CANSparkMax(CANID.RIGHT_UPRIGHTER_SPARKMAX, MotorType.kBrushless);
+    uprighterSparkMaxRight.restoreFactoryDefaults();
+    uprighterSparkMaxRight.setIdleMode(IdleMode.kBrake);
+    uprighterSparkMaxRight.setInverted(false);
+    SparkMaxStatusProfile.OPEN_LOOP_ROLLER.apply(uprighterSparkMaxRight);
+    uprighterMotorRight = new LazySparkMax(uprighterSparkMaxRight, "Uprighter Right");
+  }
+
+  @Override
+  public void setMotors(double left, double right) {
+    uprighterMotorLeft.set(left);
+    uprighterMotorRight.set(right);
+  }
+
+}
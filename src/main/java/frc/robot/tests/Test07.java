@@ -50,7 +50,7 @@ public class Test07 extends SequentialCommandGroup {
         autoBuilder.resetPose(pathGroup.get(0)),
         new RunCommand(() -> intake.close(), intake).withTimeout(0.5),
         new RunCommand(() -> uprighter.spinOut(), intake).withTimeout(0.65),
-        new RunCommand(() -> uprighter.stop(), intake).withTimeout(0.0),
+        new InstantCommand(() -> uprighter.stop(), intake),
         new RunCommand(() -> intake.spinOut(), intake).withTimeout(0.5),
         new RunCommand(() -> intake.open(), intake).withTimeout(0.5),
         new InstantCommand(() -> intake.stop(), intake));
@@ -23,14 +23,17 @@ public class Test08 extends SequentialCommandGroup {
   Uprighter uprighter;
   Gripper gripper;
   Arm arm;
+  Vision vision;
 
-  public Test08(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm) {
+  public Test08(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm,
+      Vision _vision) {
 
     swerveDrive = _swerveDrive;
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     arm = _arm;
+    vision = _vision;
 
     List<PathPlannerTrajectory> pathGroup = PathPlanner.loadPathGroup("Test08", new PathConstraints(3, 2));
 
@@ -53,7 +56,7 @@ public class Test08 extends SequentialCommandGroup {
         new InstantCommand(() -> intake.open(), intake),
         new InstantCommand(() -> intake.stop(), intake),
         overChargeStationAndBack,
-        new RunCommand(() -> new BalanceRobot(swerveDrive, 0), swerveDrive).withTimeout(5.0),
+        new RunCommand(() -> new BalanceRobot(swerveDrive, vision, 0), swerveDrive).withTimeout(5.0),
         // Experimental reset of gyro to 180 degrees
         new InstantCommand(() -> swerveDrive.setGyroAngleAdjustment(180), swerveDrive));
 
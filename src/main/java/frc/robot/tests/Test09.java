@@ -1,7 +1,6 @@
 package frc.robot.tests;
 
 import java.util.HashMap;
-import org.photonvision.PhotonCamera;
 import com.pathplanner.lib.PathPlanner;
 import com.pathplanner.lib.PathPlannerTrajectory;
 import com.pathplanner.lib.auto.PIDConstants;
@@ -18,20 +17,22 @@ import com.pathplanner.lib.PathConstraints;
 
 public class Test09 extends SequentialCommandGroup {
 
-  PhotonCamera camera;
   SwerveDrive swerveDrive;
   Intake intake;
   Uprighter uprighter;
   Gripper gripper;
   Arm arm;
+  GamePieceVision gamePieceVision;
 
-  public Test09(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm) {
+  public Test09(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm,
+      GamePieceVision _gamePieceVision) {
 
     swerveDrive = _swerveDrive;
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     arm = _arm;
+    gamePieceVision = _gamePieceVision;
 
     PathPlannerTrajectory path = PathPlanner.loadPath("ElectricForward", new PathConstraints(4, 3));
 
@@ -46,7 +47,8 @@ public class Test09 extends SequentialCommandGroup {
     addCommands(autoBuilder.resetPose(path));
     addCommands(autoBuilder.followPath(path));
     addCommands(new RotateRobot(_swerveDrive, 180.0).withTimeout(3));
-    addCommands(new MLCubePickup(_swerveDrive).withTimeout(1).raceWith(new DeployIntake(_intake, _uprighter)));
+    addCommands(new MLCubePickup(_swerveDrive, gamePieceVision).withTimeout(1)
+        .raceWith(new DeployIntake(_intake, _uprighter)));
     _swerveDrive.resetGyro();
   }
 }
@@ -23,14 +23,17 @@ public class Test10 extends SequentialCommandGroup {
   Uprighter uprighter;
   Gripper gripper;
   Arm arm;
+  Vision vision;
 
-  public Test10(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm) {
+  public Test10(SwerveDrive _swerveDrive, Intake _intake, Uprighter _uprighter, Gripper _gripper, Arm _arm,
+      Vision _vision) {
 
     swerveDrive = _swerveDrive;
     intake = _intake;
     uprighter = _uprighter;
     gripper = _gripper;
     arm = _arm;
+    vision = _vision;
 
     List<PathPlannerTrajectory> pathGroup = PathPlanner.loadPathGroup("Test10", new PathConstraints(3, 2));
 
@@ -45,7 +48,7 @@ public class Test10 extends SequentialCommandGroup {
     Command gotoChargeStation = autoBuilder.fullAuto(pathGroup);
 
     addCommands(gotoChargeStation,
-        new RunCommand(() -> new BalanceRobot(swerveDrive, 0), swerveDrive).withTimeout(5.0));
+        new RunCommand(() -> new BalanceRobot(swerveDrive, vision, 0), swerveDrive).withTimeout(5.0));
 
   }
 }
@@ -13,7 +13,6 @@ import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.TrajectoryConfig;
 import edu.wpi.first.math.trajectory.TrajectoryGenerator;
 import frc.robot.subsystems.SwerveDrive;
-import edu.wpi.first.wpilibj2.command.SwerveControllerCommand;
 import java.util.List;
 import frc.robot.subsystems.*;
 import frc.robot.commands.*;
@@ -63,27 +62,12 @@ public class TestMB extends SequentialCommandGroup {
 
     // Create a PID controller for the robot's translation and rotation.
     var thetaController = new ProfiledPIDController(1.0, 0, 0, new Constraints(Math.PI, Math.PI));
-    thetaController.enableContinuousInput(-Math.PI, Math.PI);
-
-    SwerveControllerCommand swerveCC01 = new SwerveControllerCommand(
-        trajectory01,
-        swerveDrive::getPose,
-        SWERVE_DRIVE_KINEMATICS,
-        new PIDController(1.0, 0, 0),
-        new PIDController(1.0, 0, 0),
-        thetaController,
-        swerveDrive::setModuleStates,
-        swerveDrive);
-
-    SwerveControllerCommand swerveCC02 = new SwerveControllerCommand(
-        trajectory02,
-        swerveDrive::getPose,
-        SWERVE_DRIVE_KINEMATICS,
-        new PIDController(1.0, 0, 0),
-        new PIDController(1.0, 0, 0),
-        thetaController,
-        swerveDrive::setModuleStates,
-        swerveDrive);
+
+    FollowTrajectory swerveCC01 = new FollowTrajectory(swerveDrive, trajectory01,
+        new PIDController(1.0, 0, 0), new PIDController(1.0, 0, 0), thetaController);
+
+    FollowTrajectory swerveCC02 = new FollowTrajectory(swerveDrive, trajectory02,
+        new PIDController(1.0, 0, 0), new PIDController(1.0, 0, 0), thetaController);
 
     // Reset odometry to the starting pose of the trajectory.
     swerveDrive.resetOdometry(trajectory01.getInitialPose());
@@ -100,7 +84,7 @@ public class TestMB extends SequentialCommandGroup {
         // 1.08 seconds - Initial shooting cube is optimal.
         new RunCommand(() -> intake.close(), intake).withTimeout(0.5),
         new RunCommand(() -> uprighter.spinOut(), intake).withTimeout(0.65),
-        new RunCommand(() -> uprighter.stop(), intake).withTimeout(0.0),
+        new InstantCommand(() -> uprighter.stop(), intake),
         new RunCommand(() -> intake.spinOut(), intake).withTimeout(0.5),
         new RunCommand(() -> intake.open(), intake).withTimeout(0.5),
         new InstantCommand(() -> intake.stop(), intake));
@@ -0,0 +1,93 @@
+package frc.robot.util;
+
+import java.lang.management.ManagementFactory;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Counts the bytes allocated on the calling thread between start() and stop().
+ * Used to prove that the drive and odometry hot paths do not allocate.
+ */
+public class AllocationCounter {
+
+  private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+  private final String name;
+  private final String averageName;
+  private long startBytes;
+  private long lastBytes;
+  private long totalBytes;
+  private long cycles;
+
+  /**
+   * Creates a new allocation counter.
+   * 
+   * @param _name The dashboard key the allocated bytes are published under.
+   */
+  public AllocationCounter(String _name) {
+    name = _name;
+    averageName = _name + " Avg";
+  }
+
+  /**
+   * Marks the start of a measured section.
+   */
+  public void start() {
+    startBytes = currentThreadAllocatedBytes();
+  }
+
+  /**
+   * Marks the end of a measured section.
+   */
+  public void stop() {
+    lastBytes = currentThreadAllocatedBytes() - startBytes;
+    totalBytes += lastBytes;
+    cycles++;
+  }
+
+  /**
+   * @return the bytes allocated during the last measured section.
+   */
+  public long getLastBytes() {
+    return lastBytes;
+  }
+
+  /**
+   * @return the average bytes allocated per measured section.
+   */
+  public double getAverageBytes() {
+    return cycles == 0 ? 0.0 : (double) totalBytes / cycles;
+  }
+
+  /**
+   * Put the last and average allocated bytes on the dashboard.
+   */
+  public void publish() {
+    SmartDashboard.putNumber(name, lastBytes);
+    SmartDashboard.putNumber(averageName, getAverageBytes());
+  }
+
+  /**
+   * @return whether the JVM supports per-thread allocation accounting.
+   */
+  public static boolean isSupported() {
+    return THREAD_BEAN != null;
+  }
+
+  private static long currentThreadAllocatedBytes() {
+    return THREAD_BEAN == null ? 0 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  private static com.sun.management.ThreadMXBean getThreadBean() {
+    try {
+      com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if (bean.isThreadAllocatedMemorySupported()) {
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+      }
+    } catch (ClassCastException | UnsupportedOperationException e) {
+      System.out.println("Thread allocation accounting is not supported on this JVM.");
+    }
+    return null;
+  }
+
+}
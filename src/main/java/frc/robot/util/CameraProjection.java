@@ -0,0 +1,102 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * Projects image pixels from a pinhole camera onto the floor, in the robot
+ * frame (x forward, y left, z up).
+ */
+public class CameraProjection {
+
+  private final double fx;
+  private final double fy;
+  private final double cx;
+  private final double cy;
+
+  // Camera position and orientation (columns of the rotation matrix) in the
+  // robot frame.
+  private final double cameraX;
+  private final double cameraY;
+  private final double cameraZ;
+  private final double[] forward = new double[3];
+  private final double[] left = new double[3];
+  private final double[] up = new double[3];
+
+  /**
+   * Creates a projection for a camera.
+   * 
+   * @param _fx           The focal length in pixels along the image x axis.
+   * @param _fy           The focal length in pixels along the image y axis.
+   * @param _cx           The principal point x in pixels.
+   * @param _cy           The principal point y in pixels.
+   * @param robotToCamera The camera pose relative to the robot center on the
+   *                      floor.
+   */
+  public CameraProjection(double _fx, double _fy, double _cx, double _cy, Transform3d robotToCamera) {
+    fx = _fx;
+    fy = _fy;
+    cx = _cx;
+    cy = _cy;
+    cameraX = robotToCamera.getX();
+    cameraY = robotToCamera.getY();
+    cameraZ = robotToCamera.getZ();
+    Rotation3d rotation = robotToCamera.getRotation();
+    store(new Translation3d(1.0, 0.0, 0.0).rotateBy(rotation), forward);
+    store(new Translation3d(0.0, 1.0, 0.0).rotateBy(rotation), left);
+    store(new Translation3d(0.0, 0.0, 1.0).rotateBy(rotation), up);
+  }
+
+  /**
+   * Projects a pixel onto the floor.
+   * 
+   * @param u             The pixel x (right).
+   * @param v             The pixel y (down).
+   * @param fallbackRange The distance to use along the pixel's bearing when
+   *                      the pixel is at or above the horizon, or 0 for none.
+   * @param depthOffset   Added to the distance along the bearing, e.g. the
+   *                      radius of an object whose near edge is at the pixel.
+   * @param maxRange      The largest believable distance from the camera.
+   * @param point         Filled with the robot frame x and y in meters.
+   * @return whether the pixel could be projected.
+   */
+  public boolean projectToFloor(double u, double v, double fallbackRange, double depthOffset, double maxRange,
+      double[] point) {
+    // Ray in the camera frame, then rotated into the robot frame.
+    double rayLeft = -(u - cx) / fx;
+    double rayUp = -(v - cy) / fy;
+    double dx = forward[0] + left[0] * rayLeft + up[0] * rayUp;
+    double dy = forward[1] + left[1] * rayLeft + up[1] * rayUp;
+    double dz = forward[2] + left[2] * rayLeft + up[2] * rayUp;
+    double horizontal = Math.hypot(dx, dy);
+    if (horizontal < 1E-9) {
+      return false;
+    }
+
+    double range;
+    if (dz < -1E-6) {
+      // Intersect the ray with the floor.
+      range = cameraZ / -dz * horizontal;
+    } else if (fallbackRange > 0.0) {
+      range = fallbackRange;
+    } else {
+      return false;
+    }
+    if (range > maxRange) {
+      return false;
+    }
+    range += depthOffset;
+
+    point[0] = cameraX + dx / horizontal * range;
+    point[1] = cameraY + dy / horizontal * range;
+    return true;
+  }
+
+  private static void store(Translation3d vector, double[] out) {
+    out[0] = vector.getX();
+    out[1] = vector.getY();
+    out[2] = vector.getZ();
+  }
+
+}
@@ -0,0 +1,22 @@
+package frc.robot.util;
+
+/**
+ * A single game piece detected by the ML coprocessor, in image pixels.
+ */
+public class GamePieceDetection {
+  public int classId;
+  public double confidence;
+  public double xMin;
+  public double yMin;
+  public double xMax;
+  public double yMax;
+  public double distanceMeters;
+
+  public double getXCenter() {
+    return (xMin + xMax) / 2.0;
+  }
+
+  public double getYCenter() {
+    return (yMin + yMax) / 2.0;
+  }
+}
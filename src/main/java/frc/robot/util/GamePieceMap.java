@@ -0,0 +1,207 @@
+package frc.robot.util;
+
+import static frc.robot.Constants.GamePieceVisionConstants.*;
+
+/**
+ * Remembers where game pieces have been seen on the field. Observations of the
+ * same class close to a known piece refine its position; others add a new
+ * piece. Pieces are forgotten when they have not been seen for a while.
+ */
+public class GamePieceMap {
+
+  private final Piece[] pieces = new Piece[MAX_MAPPED_PIECES];
+  private int nextId = 0;
+
+  /**
+   * A game piece on the field, in field meters.
+   */
+  public static class Piece {
+    private boolean active = false;
+    private int id;
+    private int classId;
+    private double x;
+    private double y;
+    private double confidence;
+    private double lastSeen;
+    private int observations;
+
+    /**
+     * @return the piece ID, unique for the life of the robot program.
+     */
+    public int getId() {
+      return id;
+    }
+
+    public int getClassId() {
+      return classId;
+    }
+
+    public double getX() {
+      return x;
+    }
+
+    public double getY() {
+      return y;
+    }
+
+    public double getConfidence() {
+      return confidence;
+    }
+
+    /**
+     * @return the FPGA time the piece was last seen.
+     */
+    public double getLastSeen() {
+      return lastSeen;
+    }
+
+    /**
+     * @return whether the piece has been seen often enough to drive to.
+     */
+    public boolean isConfirmed() {
+      return active && observations >= MAP_CONFIRM_OBSERVATIONS;
+    }
+  }
+
+  public GamePieceMap() {
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      pieces[i] = new Piece();
+    }
+  }
+
+  /**
+   * Adds an observation of a piece.
+   * 
+   * @param classId    The game piece class.
+   * @param x          The field x in meters.
+   * @param y          The field y in meters.
+   * @param confidence The detection confidence (0 to 1).
+   * @param timestamp  The capture time, in FPGA seconds.
+   */
+  public void addObservation(int classId, double x, double y, double confidence, double timestamp) {
+    // Refine the closest known piece of the same class.
+    Piece closest = null;
+    double closestDistance = MAP_MATCH_RADIUS_METERS;
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      Piece piece = pieces[i];
+      if (piece.active && piece.classId == classId) {
+        double distance = Math.hypot(piece.x - x, piece.y - y);
+        if (distance < closestDistance) {
+          closest = piece;
+          closestDistance = distance;
+        }
+      }
+    }
+
+    if (closest != null) {
+      double weight = MAP_POSITION_SMOOTHING * confidence;
+      closest.x += weight * (x - closest.x);
+      closest.y += weight * (y - closest.y);
+      closest.confidence = Math.max(closest.confidence, confidence);
+      closest.lastSeen = timestamp;
+      closest.observations++;
+      return;
+    }
+
+    Piece piece = getFreePiece();
+    piece.active = true;
+    piece.id = nextId++;
+    piece.classId = classId;
+    piece.x = x;
+    piece.y = y;
+    piece.confidence = confidence;
+    piece.lastSeen = timestamp;
+    piece.observations = 1;
+  }
+
+  /**
+   * Forgets pieces that have not been seen for a while.
+   * 
+   * @param time The current FPGA time in seconds.
+   */
+  public void expire(double time) {
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      if (pieces[i].active && time - pieces[i].lastSeen > MAP_TIMEOUT_SECONDS) {
+        pieces[i].active = false;
+      }
+    }
+  }
+
+  /**
+   * Returns the known piece with the given ID.
+   * 
+   * @param id The piece ID.
+   * @return the piece, or null if it was forgotten.
+   */
+  public Piece getPiece(int id) {
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      if (pieces[i].active && pieces[i].id == id) {
+        return pieces[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the confirmed piece of the given class closest to a point.
+   * 
+   * @param classId The game piece class.
+   * @param x       The field x in meters.
+   * @param y       The field y in meters.
+   * @return the piece, or null if there is none.
+   */
+  public Piece getNearestPiece(int classId, double x, double y) {
+    Piece nearest = null;
+    double nearestDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      Piece piece = pieces[i];
+      if (piece.isConfirmed() && piece.classId == classId) {
+        double distance = Math.hypot(piece.x - x, piece.y - y);
+        if (distance < nearestDistance) {
+          nearest = piece;
+          nearestDistance = distance;
+        }
+      }
+    }
+    return nearest;
+  }
+
+  /**
+   * @return the number of known pieces.
+   */
+  public int getPieceCount() {
+    int count = 0;
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      if (pieces[i].active) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Forgets every piece.
+   */
+  public void clear() {
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      pieces[i].active = false;
+    }
+  }
+
+  /**
+   * Returns an unused piece, or the one seen longest ago.
+   */
+  private Piece getFreePiece() {
+    Piece oldest = pieces[0];
+    for (int i = 0; i < MAX_MAPPED_PIECES; i++) {
+      if (!pieces[i].active) {
+        return pieces[i];
+      }
+      if (pieces[i].lastSeen < oldest.lastSeen) {
+        oldest = pieces[i];
+      }
+    }
+    return oldest;
+  }
+
+}
@@ -0,0 +1,357 @@
+package frc.robot.util;
+
+import static frc.robot.Constants.GamePieceVisionConstants.*;
+
+/**
+ * Tracks game pieces across ML detection frames so commands can lock on to one
+ * piece and keep steering through flicker and short dropouts.
+ *
+ * Each track runs a constant velocity Kalman filter on the box center (one
+ * independent filter per image axis). Every frame, the tracks are predicted to
+ * the frame time and matched to detections of the same class, closest first,
+ * inside a Mahalanobis distance gate. Matched tracks are corrected and gain
+ * confidence; missed tracks decay and are dropped; unmatched detections start
+ * new tracks. Everything is preallocated, so updating does not allocate.
+ */
+public class GamePieceTracker {
+
+  private final Track[] tracks = new Track[MAX_TRACKS];
+  private final double[] costs = new double[MAX_TRACKS * MAX_DETECTIONS];
+  private final boolean[] trackMatched = new boolean[MAX_TRACKS];
+  private final boolean[] detectionMatched = new boolean[MAX_DETECTIONS];
+  private int nextId = 0;
+
+  /**
+   * One axis of a constant velocity Kalman filter, with state [position,
+   * velocity] and its covariance.
+   */
+  private static class KalmanAxis {
+    double position;
+    double velocity;
+    double p00;
+    double p01;
+    double p11;
+
+    void reset(double _position) {
+      position = _position;
+      velocity = 0.0;
+      p00 = TRACK_MEASUREMENT_NOISE * TRACK_MEASUREMENT_NOISE;
+      p01 = 0.0;
+      p11 = TRACK_INITIAL_VELOCITY_STD_DEV * TRACK_INITIAL_VELOCITY_STD_DEV;
+    }
+
+    void predict(double dt) {
+      double q = TRACK_PROCESS_NOISE * TRACK_PROCESS_NOISE;
+      double dt2 = dt * dt;
+      position += velocity * dt;
+      p00 += dt * (2.0 * p01 + dt * p11) + q * dt2 * dt2 / 4.0;
+      p01 += dt * p11 + q * dt2 * dt / 2.0;
+      p11 += q * dt2;
+    }
+
+    double innovationVariance() {
+      return p00 + TRACK_MEASUREMENT_NOISE * TRACK_MEASUREMENT_NOISE;
+    }
+
+    void correct(double measurement) {
+      double s = innovationVariance();
+      double k0 = p00 / s;
+      double k1 = p01 / s;
+      double innovation = measurement - position;
+      position += k0 * innovation;
+      velocity += k1 * innovation;
+      p11 -= k1 * p01;
+      p01 -= k0 * p01;
+      p00 -= k0 * p00;
+    }
+  }
+
+  /**
+   * A tracked game piece, in image pixels.
+   */
+  public static class Track {
+    private final KalmanAxis x = new KalmanAxis();
+    private final KalmanAxis y = new KalmanAxis();
+    private boolean active = false;
+    private int id;
+    private int classId;
+    private double confidence;
+    private double width;
+    private double height;
+    private double distanceMeters;
+    private double timestamp;
+    private int hits;
+
+    /**
+     * @return the track ID, unique for the life of the robot program.
+     */
+    public int getId() {
+      return id;
+    }
+
+    public int getClassId() {
+      return classId;
+    }
+
+    /**
+     * @return the track confidence (0 to 1), decayed for every missed frame.
+     */
+    public double getConfidence() {
+      return confidence;
+    }
+
+    /**
+     * @return whether the track has been seen in enough frames to act on.
+     */
+    public boolean isConfirmed() {
+      return active && hits >= TRACK_CONFIRM_HITS;
+    }
+
+    /**
+     * Predicts the box center x at the given time.
+     *
+     * @param time The FPGA time in seconds.
+     * @return the center x in pixels.
+     */
+    public double getXCenter(double time) {
+      return x.position + x.velocity * (time - timestamp);
+    }
+
+    /**
+     * Predicts the box center y at the given time.
+     *
+     * @param time The FPGA time in seconds.
+     * @return the center y in pixels.
+     */
+    public double getYCenter(double time) {
+      return y.position + y.velocity * (time - timestamp);
+    }
+
+    public double getWidth() {
+      return width;
+    }
+
+    public double getHeight() {
+      return height;
+    }
+
+    public double getDistanceMeters() {
+      return distanceMeters;
+    }
+
+    /**
+     * @return the time of the last frame the track was predicted to.
+     */
+    public double getTimestamp() {
+      return timestamp;
+    }
+
+    private void start(int _id, GamePieceDetection detection, double _timestamp) {
+      active = true;
+      id = _id;
+      classId = detection.classId;
+      confidence = detection.confidence * TRACK_INITIAL_CONFIDENCE_SCALE;
+      hits = 1;
+      x.reset(detection.getXCenter());
+      y.reset(detection.getYCenter());
+      width = detection.xMax - detection.xMin;
+      height = detection.yMax - detection.yMin;
+      distanceMeters = detection.distanceMeters;
+      timestamp = _timestamp;
+    }
+
+    private void correct(GamePieceDetection detection) {
+      x.correct(detection.getXCenter());
+      y.correct(detection.getYCenter());
+      width += TRACK_SIZE_SMOOTHING * ((detection.xMax - detection.xMin) - width);
+      height += TRACK_SIZE_SMOOTHING * ((detection.yMax - detection.yMin) - height);
+      distanceMeters += TRACK_SIZE_SMOOTHING * (detection.distanceMeters - distanceMeters);
+      confidence += (1.0 - confidence) * detection.confidence * TRACK_CONFIDENCE_GAIN;
+      hits++;
+    }
+  }
+
+  public GamePieceTracker() {
+    for (int i = 0; i < MAX_TRACKS; i++) {
+      tracks[i] = new Track();
+    }
+  }
+
+  /**
+   * Updates the tracks with one detection frame.
+   *
+   * @param detections The detections in the frame.
+   * @param count      The number of detections.
+   * @param timestamp  The frame capture time, in FPGA seconds.
+   */
+  public void update(GamePieceDetection[] detections, int count, double timestamp) {
+    // Predict every track to the frame time.
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      Track track = tracks[t];
+      trackMatched[t] = false;
+      if (track.active) {
+        double dt = timestamp - track.timestamp;
+        if (dt > 0) {
+          track.x.predict(dt);
+          track.y.predict(dt);
+          track.timestamp = timestamp;
+        }
+      }
+    }
+
+    // Gated association cost for every track and detection pair.
+    for (int d = 0; d < count; d++) {
+      detectionMatched[d] = false;
+      GamePieceDetection detection = detections[d];
+      for (int t = 0; t < MAX_TRACKS; t++) {
+        Track track = tracks[t];
+        double cost = Double.POSITIVE_INFINITY;
+        if (track.active && track.classId == detection.classId) {
+          double dx = detection.getXCenter() - track.x.position;
+          double dy = detection.getYCenter() - track.y.position;
+          cost = dx * dx / track.x.innovationVariance() + dy * dy / track.y.innovationVariance();
+          if (cost > TRACK_GATE) {
+            cost = Double.POSITIVE_INFINITY;
+          }
+        }
+        costs[t * MAX_DETECTIONS + d] = cost;
+      }
+    }
+
+    // Greedily match the closest remaining pair until nothing is left in the
+    // gate.
+    while (true) {
+      int bestTrack = -1;
+      int bestDetection = -1;
+      double bestCost = Double.POSITIVE_INFINITY;
+      for (int t = 0; t < MAX_TRACKS; t++) {
+        if (trackMatched[t]) {
+          continue;
+        }
+        for (int d = 0; d < count; d++) {
+          double cost = costs[t * MAX_DETECTIONS + d];
+          if (!detectionMatched[d] && cost < bestCost) {
+            bestCost = cost;
+            bestTrack = t;
+            bestDetection = d;
+          }
+        }
+      }
+      if (bestTrack < 0) {
+        break;
+      }
+      trackMatched[bestTrack] = true;
+      detectionMatched[bestDetection] = true;
+      tracks[bestTrack].correct(detections[bestDetection]);
+    }
+
+    // Decay missed tracks and drop the ones we no longer believe in.
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      Track track = tracks[t];
+      if (track.active && !trackMatched[t]) {
+        track.confidence *= TRACK_CONFIDENCE_DECAY;
+        if (track.confidence < MIN_TRACK_CONFIDENCE) {
+          track.active = false;
+        }
+      }
+    }
+
+    // Start new tracks for unmatched detections.
+    for (int d = 0; d < count; d++) {
+      if (!detectionMatched[d]) {
+        int t = getFreeTrack();
+        if (t >= 0) {
+          tracks[t].start(nextId++, detections[d], timestamp);
+          trackMatched[t] = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops tracks that have not been predicted for a while, e.g. when the
+   * coprocessor stops sending frames.
+   *
+   * @param time The current FPGA time in seconds.
+   */
+  public void expire(double time) {
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      if (tracks[t].active && time - tracks[t].timestamp > TRACK_TIMEOUT_SECONDS) {
+        tracks[t].active = false;
+      }
+    }
+  }
+
+  /**
+   * Returns the active track with the given ID.
+   *
+   * @param id The track ID.
+   * @return the track, or null if it was dropped.
+   */
+  public Track getTrack(int id) {
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      if (tracks[t].active && tracks[t].id == id) {
+        return tracks[t];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the most confident confirmed track of the given class.
+   *
+   * @param classId The game piece class.
+   * @return the track, or null if there is none.
+   */
+  public Track getBestTrack(int classId) {
+    Track best = null;
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      Track track = tracks[t];
+      if (track.isConfirmed() && track.classId == classId
+          && (best == null || track.confidence > best.confidence)) {
+        best = track;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @return the number of active tracks.
+   */
+  public int getActiveTrackCount() {
+    int count = 0;
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      if (tracks[t].active) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Drops every track.
+   */
+  public void clear() {
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      tracks[t].active = false;
+    }
+  }
+
+  /**
+   * Returns the index of an inactive track, or of the least confident track
+   * that was not seen in this frame.
+   */
+  private int getFreeTrack() {
+    int weakest = -1;
+    for (int t = 0; t < MAX_TRACKS; t++) {
+      if (!tracks[t].active) {
+        return t;
+      }
+      if (!trackMatched[t] && (weakest < 0 || tracks[t].confidence < tracks[weakest].confidence)) {
+        weakest = t;
+      }
+    }
+    return weakest;
+  }
+
+}
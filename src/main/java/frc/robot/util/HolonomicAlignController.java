@@ -0,0 +1,139 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
+import static frc.robot.Constants.AlignConstants.*;
+
+/**
+ * Drives a holonomic robot to a goal pose with one motion profiled PID
+ * controller per axis (x, y and theta). Each axis follows a trapezoid profile
+ * to its goal, using the profile velocity as feedforward and PID on the
+ * profile position, so the robot accelerates and brakes smoothly instead of
+ * jumping to the proportional output.
+ *
+ * Poses and velocities can be in any frame (field, robot, or relative to a
+ * target), as long as the measurement and goal share it. The controller keeps
+ * its state between cycles, so create it once per command and call reset()
+ * in initialize().
+ */
+public class HolonomicAlignController {
+
+  private final ProfiledPIDController xController;
+  private final ProfiledPIDController yController;
+  private final ProfiledPIDController thetaController;
+
+  /**
+   * Creates a controller with the default alignment gains and constraints.
+   */
+  public HolonomicAlignController() {
+    this(TRANSLATION_P, TRANSLATION_CONSTRAINTS, ROTATION_P, ROTATION_CONSTRAINTS);
+  }
+
+  /**
+   * Creates a controller.
+   * 
+   * @param translationP           The x and y proportional gain, in (m/s) per m.
+   * @param translationConstraints The x and y velocity and acceleration limits.
+   * @param rotationP              The theta proportional gain, in (rad/s) per rad.
+   * @param rotationConstraints    The theta velocity and acceleration limits.
+   */
+  public HolonomicAlignController(double translationP, Constraints translationConstraints, double rotationP,
+      Constraints rotationConstraints) {
+    xController = new ProfiledPIDController(translationP, TRANSLATION_I, TRANSLATION_D, translationConstraints);
+    yController = new ProfiledPIDController(translationP, TRANSLATION_I, TRANSLATION_D, translationConstraints);
+    thetaController = new ProfiledPIDController(rotationP, ROTATION_I, ROTATION_D, rotationConstraints);
+    thetaController.enableContinuousInput(-Math.PI, Math.PI);
+    setTolerance(TRANSLATION_TOLERANCE_METERS, ROTATION_TOLERANCE_RADIANS);
+  }
+
+  /**
+   * Sets how close to the goal counts as there, with the default velocity
+   * tolerances.
+   * 
+   * @param translationMeters The x and y tolerance.
+   * @param rotationRadians   The theta tolerance.
+   */
+  public void setTolerance(double translationMeters, double rotationRadians) {
+    setTolerance(translationMeters, rotationRadians, TRANSLATION_VELOCITY_TOLERANCE, ROTATION_VELOCITY_TOLERANCE);
+  }
+
+  /**
+   * Sets how close to the goal, and how slow, counts as there. With a
+   * stationary goal the velocity error is the robot's own velocity, so the
+   * robot has to settle as well as arrive.
+   * 
+   * @param translationMeters   The x and y tolerance.
+   * @param rotationRadians     The theta tolerance.
+   * @param translationVelocity The x and y velocity tolerance in m/s.
+   * @param rotationVelocity    The theta velocity tolerance in rad/s.
+   */
+  public void setTolerance(double translationMeters, double rotationRadians, double translationVelocity,
+      double rotationVelocity) {
+    xController.setTolerance(translationMeters, translationVelocity);
+    yController.setTolerance(translationMeters, translationVelocity);
+    thetaController.setTolerance(rotationRadians, rotationVelocity);
+  }
+
+  /**
+   * Restarts the profiles from the current pose at rest. Call when a command
+   * starts, or when the measurement comes back after a dropout.
+   * 
+   * @param x     The current x in meters.
+   * @param y     The current y in meters.
+   * @param theta The current heading in radians.
+   */
+  public void reset(double x, double y, double theta) {
+    reset(x, y, theta, 0.0, 0.0, 0.0);
+  }
+
+  /**
+   * Restarts the profiles from the current pose and velocity.
+   * 
+   * @param x      The current x in meters.
+   * @param y      The current y in meters.
+   * @param theta  The current heading in radians.
+   * @param xSpeed The current x velocity in meters per second.
+   * @param ySpeed The current y velocity in meters per second.
+   * @param omega  The current angular velocity in radians per second.
+   */
+  public void reset(double x, double y, double theta, double xSpeed, double ySpeed, double omega) {
+    xController.reset(x, xSpeed);
+    yController.reset(y, ySpeed);
+    thetaController.reset(theta, omega);
+  }
+
+  /**
+   * Calculates the velocity that moves the robot toward the goal.
+   * 
+   * @param x         The current x in meters.
+   * @param y         The current y in meters.
+   * @param theta     The current heading in radians.
+   * @param goalX     The goal x in meters.
+   * @param goalY     The goal y in meters.
+   * @param goalTheta The goal heading in radians.
+   * @param output    Filled with x and y velocity in meters per second and
+   *                  angular velocity in radians per second, in the same frame
+   *                  as the poses.
+   */
+  public void calculate(double x, double y, double theta, double goalX, double goalY, double goalTheta,
+      double[] output) {
+    output[0] = xController.calculate(x, goalX) + xController.getSetpoint().velocity;
+    output[1] = yController.calculate(y, goalY) + yController.getSetpoint().velocity;
+    output[2] = thetaController.calculate(theta, goalTheta) + thetaController.getSetpoint().velocity;
+  }
+
+  /**
+   * @return whether every axis has reached its goal, within tolerance.
+   */
+  public boolean atGoal() {
+    return xController.atGoal() && yController.atGoal() && thetaController.atGoal();
+  }
+
+  /**
+   * @return whether x and y have reached their goal, within tolerance.
+   */
+  public boolean atTranslationGoal() {
+    return xController.atGoal() && yController.atGoal();
+  }
+
+}
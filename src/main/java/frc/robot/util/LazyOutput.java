@@ -0,0 +1,94 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Base class for output wrappers that skip writes which would not change the
+ * device's output. Counts the frames sent and saved for every device.
+ */
+public abstract class LazyOutput {
+
+  // Resend an unchanged value at least this often, in case a frame was lost.
+  public static final double REFRESH_PERIOD_SECONDS = 0.1;
+  private static final double PUBLISH_PERIOD_SECONDS = 1.0;
+
+  private static final List<LazyOutput> outputs = new ArrayList<>();
+  private static long lastPublishNanos = 0;
+
+  private final String name;
+  private final String savedKey;
+  private long framesSent = 0;
+  private long framesSaved = 0;
+  private long lastWriteNanos = 0;
+
+  protected LazyOutput(String _name) {
+    name = _name;
+    savedKey = "CAN Saved/" + _name;
+    outputs.add(this);
+  }
+
+  /**
+   * Decides whether an unchanged value still needs to be resent, and records
+   * the write or the saved frame.
+   * 
+   * @param changed Whether the value differs from the last value sent.
+   * @return true if the write should be sent to the device.
+   */
+  protected boolean shouldWrite(boolean changed) {
+    long now = System.nanoTime();
+    if (changed || now - lastWriteNanos >= (long) (REFRESH_PERIOD_SECONDS * 1E9)) {
+      lastWriteNanos = now;
+      framesSent++;
+      return true;
+    }
+    framesSaved++;
+    return false;
+  }
+
+  /**
+   * @return the name of the device.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the number of writes sent to the device.
+   */
+  public long getFramesSent() {
+    return framesSent;
+  }
+
+  /**
+   * @return the number of writes skipped because the value was unchanged.
+   */
+  public long getFramesSaved() {
+    return framesSaved;
+  }
+
+  /**
+   * Puts the frames saved by every device on the dashboard, at most once per
+   * second.
+   */
+  public static void publishAll() {
+    long now = System.nanoTime();
+    if (now - lastPublishNanos < (long) (PUBLISH_PERIOD_SECONDS * 1E9)) {
+      return;
+    }
+    lastPublishNanos = now;
+
+    long totalSaved = 0;
+    long totalSent = 0;
+    for (int i = 0; i < outputs.size(); i++) {
+      LazyOutput output = outputs.get(i);
+      SmartDashboard.putNumber(output.savedKey, output.framesSaved);
+      totalSaved += output.framesSaved;
+      totalSent += output.framesSent;
+    }
+    SmartDashboard.putNumber("CAN Saved/Total", totalSaved);
+    SmartDashboard.putNumber("CAN Sent/Total", totalSent);
+  }
+
+}
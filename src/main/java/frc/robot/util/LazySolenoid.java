@@ -0,0 +1,46 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Solenoid;
+
+/**
+ * Wraps a Solenoid so that unchanged states are not rewritten every cycle.
+ */
+public class LazySolenoid extends LazyOutput {
+
+  private final Solenoid solenoid;
+  private boolean lastValue = false;
+  private boolean hasValue = false;
+
+  /**
+   * Creates a new lazy solenoid.
+   * 
+   * @param _solenoid The solenoid to wrap.
+   * @param _name     The device name used when reporting saved frames.
+   */
+  public LazySolenoid(Solenoid _solenoid, String _name) {
+    super(_name);
+    solenoid = _solenoid;
+  }
+
+  /**
+   * Sets the state of the solenoid.
+   * 
+   * @param on Whether the solenoid is energized.
+   */
+  public void set(boolean on) {
+    boolean changed = !hasValue || on != lastValue;
+    lastValue = on;
+    hasValue = true;
+    if (shouldWrite(changed)) {
+      solenoid.set(on);
+    }
+  }
+
+  /**
+   * @return the last state written to the solenoid.
+   */
+  public boolean get() {
+    return lastValue;
+  }
+
+}
@@ -0,0 +1,117 @@
+package frc.robot.util;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMax.ControlType;
+import com.revrobotics.SparkMaxPIDController;
+
+/**
+ * Wraps a CANSparkMax and its PID controller so that setpoints which have not
+ * changed (within a tolerance) are not resent every cycle.
+ */
+public class LazySparkMax extends LazyOutput {
+
+  public static final double DEFAULT_TOLERANCE = 1E-4;
+
+  private final CANSparkMax motor;
+  private final SparkMaxPIDController pidController;
+  private final double tolerance;
+
+  private ControlType lastControlType = null;
+  private double lastValue = Double.NaN;
+  private int lastSlot = 0;
+  private double lastArbFeedforward = 0.0;
+
+  /**
+   * Creates a new lazy SparkMax using the default tolerance.
+   * 
+   * @param _motor The SparkMax to wrap.
+   * @param _name  The device name used when reporting saved frames.
+   */
+  public LazySparkMax(CANSparkMax _motor, String _name) {
+    this(_motor, _name, DEFAULT_TOLERANCE);
+  }
+
+  /**
+   * Creates a new lazy SparkMax.
+   * 
+   * @param _motor     The SparkMax to wrap.
+   * @param _name      The device name used when reporting saved frames.
+   * @param _tolerance Values within this tolerance of the last value sent are
+   *                   not resent.
+   */
+  public LazySparkMax(CANSparkMax _motor, String _name, double _tolerance) {
+    super(_name);
+    motor = _motor;
+    pidController = _motor.getPIDController();
+    tolerance = _tolerance;
+  }
+
+  /**
+   * Sets the duty cycle of the motor.
+   * 
+   * @param speed The duty cycle (-1 to 1).
+   */
+  public void set(double speed) {
+    if (shouldWrite(isChanged(speed, ControlType.kDutyCycle, 0, 0.0))) {
+      motor.set(speed);
+    }
+  }
+
+  /**
+   * Stops the motor.
+   */
+  public void stopMotor() {
+    if (shouldWrite(isChanged(0.0, ControlType.kDutyCycle, 0, 0.0))) {
+      motor.stopMotor();
+    }
+  }
+
+  /**
+   * Sets the closed loop reference of the motor's PID controller.
+   * 
+   * @param value       The setpoint.
+   * @param controlType The control type.
+   */
+  public void setReference(double value, ControlType controlType) {
+    if (shouldWrite(isChanged(value, controlType, 0, 0.0))) {
+      pidController.setReference(value, controlType);
+    }
+  }
+
+  /**
+   * Sets the closed loop reference of the motor's PID controller with an
+   * arbitrary feed forward.
+   * 
+   * @param value           The setpoint.
+   * @param controlType     The control type.
+   * @param pidSlot         The PID slot to use.
+   * @param arbFeedforward  The feed forward voltage.
+   */
+  public void setReference(double value, ControlType controlType, int pidSlot, double arbFeedforward) {
+    if (shouldWrite(isChanged(value, controlType, pidSlot, arbFeedforward))) {
+      pidController.setReference(value, controlType, pidSlot, arbFeedforward);
+    }
+  }
+
+  /**
+   * @return the wrapped SparkMax, for configuration and sensor access.
+   */
+  public CANSparkMax getMotor() {
+    return motor;
+  }
+
+  private boolean isChanged(double value, ControlType controlType, int slot, double arbFeedforward) {
+    boolean changed = controlType != lastControlType
+        || slot != lastSlot
+        || !(Math.abs(value - lastValue) <= tolerance)
+        || !(Math.abs(arbFeedforward - lastArbFeedforward) <= tolerance);
+    if (changed) {
+      lastControlType = controlType;
+      lastValue = value;
+      lastSlot = slot;
+      lastArbFeedforward = arbFeedforward;
+    }
+    return changed;
+  }
+
+}
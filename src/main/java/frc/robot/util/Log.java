@@ -0,0 +1,261 @@
+package frc.robot.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous console logging. Messages are copied into a bounded lock-free
+ * queue of preallocated records and printed by a background thread, so the
+ * robot loop never blocks on console output. When the queue is full, messages
+ * are dropped and counted instead of blocking.
+ *
+ * Hot paths log through a Site, which filters by level and rate limits before
+ * anything is queued. Sites log a constant prefix and a number, which are only
+ * formatted on the logging thread:
+ *
+ * <pre>
+ * private static final Log.Site yawLog = Log.site("RotateRobot", Log.Level.INFO, 0.5);
+ * ...
+ * yawLog.log("yaw: ", currentYaw);
+ * </pre>
+ */
+public final class Log {
+
+  /**
+   * Message severity, lowest first.
+   */
+  public enum Level {
+    DEBUG, INFO, WARN, ERROR
+  }
+
+  private static final int QUEUE_CAPACITY = 256; // must be a power of two
+  private static final int MASK = QUEUE_CAPACITY - 1;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  private static volatile Level minimumLevel = Level.INFO;
+
+  // Bounded multi-producer queue (Vyukov). Each slot's sequence number says
+  // whether the slot is free for the producer at that position, or holds a
+  // record for the consumer at that position.
+  private static final Record[] records = new Record[QUEUE_CAPACITY];
+  private static final AtomicLongArray sequences = new AtomicLongArray(QUEUE_CAPACITY);
+  private static final AtomicLong enqueuePosition = new AtomicLong();
+  private static final AtomicLong droppedMessages = new AtomicLong();
+  private static long dequeuePosition = 0; // logging thread only
+
+  static {
+    for (int i = 0; i < QUEUE_CAPACITY; i++) {
+      records[i] = new Record();
+      sequences.set(i, i);
+    }
+    Thread thread = new Thread(Log::drainLoop, "Log");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  private Log() {
+  }
+
+  private static class Record {
+    Level level;
+    String tag;
+    String message;
+    double value;
+    boolean hasValue;
+    long suppressed;
+  }
+
+  /**
+   * A logging call site with its own level and rate limit.
+   */
+  public static class Site {
+    private final String tag;
+    private final Level level;
+    private final long minPeriodNanos;
+    private long lastLogNanos;
+    private long suppressed = 0;
+
+    private Site(String _tag, Level _level, double minPeriodSeconds) {
+      tag = _tag;
+      level = _level;
+      minPeriodNanos = (long) (minPeriodSeconds * 1E9);
+      lastLogNanos = System.nanoTime() - minPeriodNanos;
+    }
+
+    /**
+     * @return whether messages at this site's level are currently logged.
+     */
+    public boolean isEnabled() {
+      return level.compareTo(minimumLevel) >= 0;
+    }
+
+    /**
+     * Logs a message, unless filtered by level or rate limited.
+     *
+     * @param message The message.
+     */
+    public void log(String message) {
+      if (shouldLog()) {
+        enqueue(level, tag, message, 0.0, false, takeSuppressed());
+      }
+    }
+
+    /**
+     * Logs a message followed by a number, unless filtered by level or rate
+     * limited. The number is formatted on the logging thread.
+     *
+     * @param prefix The text printed before the number.
+     * @param value  The number.
+     */
+    public void log(String prefix, double value) {
+      if (shouldLog()) {
+        enqueue(level, tag, prefix, value, true, takeSuppressed());
+      }
+    }
+
+    private boolean shouldLog() {
+      if (!isEnabled()) {
+        return false;
+      }
+      long now = System.nanoTime();
+      if (now - lastLogNanos < minPeriodNanos) {
+        suppressed++;
+        return false;
+      }
+      lastLogNanos = now;
+      return true;
+    }
+
+    private long takeSuppressed() {
+      long count = suppressed;
+      suppressed = 0;
+      return count;
+    }
+  }
+
+  /**
+   * Creates a logging call site. Keep the site in a static final field so the
+   * rate limit is shared by every call.
+   *
+   * @param tag              The name printed with every message.
+   * @param level            The level of every message from this site.
+   * @param minPeriodSeconds The minimum time between messages. Messages in
+   *                         between are counted and dropped.
+   * @return The call site.
+   */
+  public static Site site(String tag, Level level, double minPeriodSeconds) {
+    return new Site(tag, level, minPeriodSeconds);
+  }
+
+  /**
+   * Sets the lowest level that is logged.
+   *
+   * @param level The minimum level.
+   */
+  public static void setLevel(Level level) {
+    minimumLevel = level;
+  }
+
+  /**
+   * Logs an INFO message without rate limiting. For one-off events only.
+   *
+   * @param tag     The name printed with the message.
+   * @param message The message.
+   */
+  public static void info(String tag, String message) {
+    if (Level.INFO.compareTo(minimumLevel) >= 0) {
+      enqueue(Level.INFO, tag, message, 0.0, false, 0);
+    }
+  }
+
+  /**
+   * Logs a WARN message without rate limiting. For one-off events only.
+   *
+   * @param tag     The name printed with the message.
+   * @param message The message.
+   */
+  public static void warn(String tag, String message) {
+    if (Level.WARN.compareTo(minimumLevel) >= 0) {
+      enqueue(Level.WARN, tag, message, 0.0, false, 0);
+    }
+  }
+
+  /**
+   * @return the number of messages dropped because the queue was full.
+   */
+  public static long getDroppedMessages() {
+    return droppedMessages.get();
+  }
+
+  private static void enqueue(Level level, String tag, String message, double value, boolean hasValue,
+      long suppressed) {
+    long position = enqueuePosition.get();
+    while (true) {
+      int index = (int) (position & MASK);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (enqueuePosition.compareAndSet(position, position + 1)) {
+          Record record = records[index];
+          record.level = level;
+          record.tag = tag;
+          record.message = message;
+          record.value = value;
+          record.hasValue = hasValue;
+          record.suppressed = suppressed;
+          sequences.lazySet(index, position + 1);
+          return;
+        }
+        position = enqueuePosition.get();
+      } else if (difference < 0) {
+        // Full, the logging thread has fallen behind.
+        droppedMessages.incrementAndGet();
+        return;
+      } else {
+        position = enqueuePosition.get();
+      }
+    }
+  }
+
+  private static void drainLoop() {
+    StringBuilder line = new StringBuilder(128);
+    long reportedDrops = 0;
+    while (true) {
+      boolean printed = false;
+      while (true) {
+        int index = (int) (dequeuePosition & MASK);
+        if (sequences.get(index) != dequeuePosition + 1) {
+          break;
+        }
+        Record record = records[index];
+        line.setLength(0);
+        line.append('[').append(record.level).append("] ").append(record.tag).append(": ").append(record.message);
+        if (record.hasValue) {
+          line.append(record.value);
+        }
+        if (record.suppressed > 0) {
+          line.append(" (").append(record.suppressed).append(" suppressed)");
+        }
+        record.tag = null;
+        record.message = null;
+        sequences.lazySet(index, dequeuePosition + QUEUE_CAPACITY);
+        dequeuePosition++;
+        System.out.println(line);
+        printed = true;
+      }
+
+      long drops = droppedMessages.get();
+      if (drops != reportedDrops) {
+        System.out.println("[WARN] Log: " + (drops - reportedDrops) + " messages dropped");
+        reportedDrops = drops;
+      }
+
+      if (!printed) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+  }
+
+}
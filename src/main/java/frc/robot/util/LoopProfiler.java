@@ -0,0 +1,152 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Records how long each phase of the robot loop takes, in nanoseconds, and
+ * publishes rolling percentiles (p50, p95, p99 and max, in milliseconds) once
+ * per second under "Loop Profile/<phase>".
+ *
+ * Recording a sample is two System.nanoTime() calls and an array store, so the
+ * profiler is cheap enough to leave on in competition. Sorting for the
+ * percentiles only happens when publishing.
+ */
+public class LoopProfiler {
+
+  // Number of samples kept per phase (5 seconds at 50Hz).
+  private static final int WINDOW_SIZE = 250;
+  private static final double PUBLISH_PERIOD_SECONDS = 1.0;
+
+  private static final List<Phase> phases = new ArrayList<>();
+  private static final Map<String, Phase> phasesByName = new HashMap<>();
+  private static final Map<String, Phase> commandPhases = new HashMap<>();
+  private static final long[] sortedSamples = new long[WINDOW_SIZE];
+  private static long lastPublishNanos = 0;
+  private static long lastMarkNanos = System.nanoTime();
+
+  private LoopProfiler() {
+  }
+
+  /**
+   * A timed phase of the robot loop, with a rolling window of samples.
+   */
+  public static class Phase {
+    private final String key;
+    private final long[] samples = new long[WINDOW_SIZE];
+    private final double[] published = new double[4];
+    private int count = 0;
+    private int index = 0;
+    private long startNanos = 0;
+
+    private Phase(String name) {
+      key = "Loop Profile/" + name;
+    }
+
+    /**
+     * Marks the start of the phase.
+     */
+    public void begin() {
+      startNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the phase and records its duration.
+     */
+    public void end() {
+      long now = System.nanoTime();
+      record(now - startNanos);
+      lastMarkNanos = now;
+    }
+
+    /**
+     * Records a duration measured elsewhere.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+      samples[index] = nanos;
+      index = (index + 1) % WINDOW_SIZE;
+      if (count < WINDOW_SIZE) {
+        count++;
+      }
+    }
+
+    private void publish() {
+      if (count == 0) {
+        return;
+      }
+      System.arraycopy(samples, 0, sortedSamples, 0, count);
+      Arrays.sort(sortedSamples, 0, count);
+      published[0] = percentile(0.50);
+      published[1] = percentile(0.95);
+      published[2] = percentile(0.99);
+      published[3] = sortedSamples[count - 1] * 1E-6;
+      SmartDashboard.putNumberArray(key, published);
+    }
+
+    private double percentile(double fraction) {
+      int i = (int) Math.ceil(fraction * count) - 1;
+      return sortedSamples[Math.max(i, 0)] * 1E-6;
+    }
+  }
+
+  /**
+   * Returns the phase with the given name, creating it the first time.
+   *
+   * @param name The phase name shown on the dashboard.
+   * @return The phase.
+   */
+  public static Phase phase(String name) {
+    Phase phase = phasesByName.get(name);
+    if (phase == null) {
+      phase = new Phase(name);
+      phasesByName.put(name, phase);
+      phases.add(phase);
+    }
+    return phase;
+  }
+
+  /**
+   * Records the time since the last phase ended (or the last command ran) as
+   * the execute time of the given command. Meant to be registered with
+   * CommandScheduler.onCommandExecute(), which is called right after each
+   * command's execute(). The first command of a cycle is timed from the end of
+   * the last subsystem periodic().
+   *
+   * @param command The command that just executed.
+   */
+  public static void onCommandExecute(Command command) {
+    long now = System.nanoTime();
+    String name = command.getName();
+    Phase phase = commandPhases.get(name);
+    if (phase == null) {
+      phase = phase("Command/" + name);
+      commandPhases.put(name, phase);
+    }
+    phase.record(now - lastMarkNanos);
+    lastMarkNanos = now;
+  }
+
+  /**
+   * Puts the percentiles of every phase on the dashboard, at most once per
+   * second. Each entry is [p50, p95, p99, max] in milliseconds.
+   */
+  public static void publishAll() {
+    long now = System.nanoTime();
+    if (now - lastPublishNanos < (long) (PUBLISH_PERIOD_SECONDS * 1E9)) {
+      return;
+    }
+    lastPublishNanos = now;
+
+    for (int i = 0; i < phases.size(); i++) {
+      phases.get(i).publish();
+    }
+  }
+
+}
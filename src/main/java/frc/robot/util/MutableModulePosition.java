@@ -0,0 +1,28 @@
+package frc.robot.util;
+
+/**
+ * A mutable swerve module position (distance and angle) that is updated in
+ * place every cycle instead of allocating a new SwerveModulePosition.
+ */
+public class MutableModulePosition {
+
+  public double distanceMeters;
+  public double angleRadians;
+
+  public MutableModulePosition() {
+  }
+
+  public MutableModulePosition(double _distanceMeters, double _angleRadians) {
+    distanceMeters = _distanceMeters;
+    angleRadians = _angleRadians;
+  }
+
+  /**
+   * Sets the distance and angle of the module position.
+   */
+  public void set(double _distanceMeters, double _angleRadians) {
+    distanceMeters = _distanceMeters;
+    angleRadians = _angleRadians;
+  }
+
+}
@@ -0,0 +1,28 @@
+package frc.robot.util;
+
+/**
+ * A mutable swerve module state (speed and angle) that is updated in place
+ * every cycle instead of allocating a new SwerveModuleState.
+ */
+public class MutableModuleState {
+
+  public double speedMetersPerSecond;
+  public double angleRadians;
+
+  public MutableModuleState() {
+  }
+
+  public MutableModuleState(double _speedMetersPerSecond, double _angleRadians) {
+    speedMetersPerSecond = _speedMetersPerSecond;
+    angleRadians = _angleRadians;
+  }
+
+  /**
+   * Sets the speed and angle of the module state.
+   */
+  public void set(double _speedMetersPerSecond, double _angleRadians) {
+    speedMetersPerSecond = _speedMetersPerSecond;
+    angleRadians = _angleRadians;
+  }
+
+}
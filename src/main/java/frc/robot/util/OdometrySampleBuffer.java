@@ -0,0 +1,132 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free, single-producer/single-consumer ring buffer of timestamped
+ * odometry samples (gyro angle plus module distances and angles).
+ * 
+ * The producer (the odometry sampler thread) never blocks. If the consumer
+ * falls more than a full buffer behind, the oldest samples are dropped and
+ * counted instead of being read torn.
+ */
+public class OdometrySampleBuffer {
+
+  /**
+   * A reusable holder that samples are copied into by the consumer.
+   */
+  public static class Sample {
+    public double timestampSeconds;
+    public double gyroRadians;
+    public final MutableModulePosition[] positions;
+
+    public Sample(int moduleCount) {
+      positions = new MutableModulePosition[moduleCount];
+      for (int i = 0; i < moduleCount; i++) {
+        positions[i] = new MutableModulePosition();
+      }
+    }
+  }
+
+  private final int capacity;
+  private final int mask;
+  private final int moduleCount;
+  private final int stride;
+  private final double[] data;
+
+  // Published by the producer, read by the consumer.
+  private final AtomicLong writeIndex = new AtomicLong();
+
+  // Owned by the consumer.
+  private long readIndex;
+  private long droppedSamples;
+
+  /**
+   * Creates a new sample buffer.
+   * 
+   * @param _capacity    The number of samples to hold, rounded up to a power of
+   *                     two.
+   * @param _moduleCount The number of swerve modules in each sample.
+   */
+  public OdometrySampleBuffer(int _capacity, int _moduleCount) {
+    capacity = Integer.highestOneBit(Math.max(2, _capacity - 1)) << 1;
+    mask = capacity - 1;
+    moduleCount = _moduleCount;
+    stride = 2 + 2 * moduleCount;
+    data = new double[capacity * stride];
+  }
+
+  /**
+   * Writes a sample. Must only be called from the producer thread.
+   * 
+   * @param timestampSeconds The FPGA timestamp the sample was taken at.
+   * @param gyroRadians      The gyro angle in radians.
+   * @param distances        The module driving distances in meters.
+   * @param angles           The module angles in radians.
+   */
+  public void write(double timestampSeconds, double gyroRadians, double[] distances, double[] angles) {
+    long index = writeIndex.get();
+    int offset = (int) (index & mask) * stride;
+    data[offset] = timestampSeconds;
+    data[offset + 1] = gyroRadians;
+    for (int i = 0; i < moduleCount; i++) {
+      data[offset + 2 + 2 * i] = distances[i];
+      data[offset + 3 + 2 * i] = angles[i];
+    }
+    // Release the slot to the consumer only after it is fully written.
+    writeIndex.lazySet(index + 1);
+  }
+
+  /**
+   * Copies the oldest unread sample into the given holder. Must only be called
+   * from the consumer thread.
+   * 
+   * @param sample The holder to copy the sample into.
+   * @return true if a sample was read, false if the buffer is empty.
+   */
+  public boolean poll(Sample sample) {
+    while (true) {
+      long written = writeIndex.get();
+      if (readIndex >= written) {
+        return false;
+      }
+      // Skip samples the producer has already lapped (or is about to).
+      if (written - readIndex >= capacity) {
+        long oldestSafe = written - capacity + 1;
+        droppedSamples += oldestSafe - readIndex;
+        readIndex = oldestSafe;
+      }
+
+      long index = readIndex++;
+      int offset = (int) (index & mask) * stride;
+      sample.timestampSeconds = data[offset];
+      sample.gyroRadians = data[offset + 1];
+      for (int i = 0; i < moduleCount; i++) {
+        sample.positions[i].distanceMeters = data[offset + 2 + 2 * i];
+        sample.positions[i].angleRadians = data[offset + 3 + 2 * i];
+      }
+
+      // If the producer started overwriting this slot while it was copied, the
+      // sample may be torn, so discard it and try the next one.
+      if (writeIndex.get() - index < capacity) {
+        return true;
+      }
+      droppedSamples++;
+    }
+  }
+
+  /**
+   * Discards all unread samples. Must only be called from the consumer thread.
+   */
+  public void clear() {
+    readIndex = writeIndex.get();
+  }
+
+  /**
+   * @return the number of samples dropped because the consumer fell behind.
+   */
+  public long getDroppedSamples() {
+    return droppedSamples;
+  }
+
+}
@@ -0,0 +1,125 @@
+package frc.robot.util;
+
+import java.util.EnumMap;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import static frc.robot.Constants.SwerveDriveConstants.ODOMETRY_FREQUENCY_HZ;
+
+/**
+ * Periodic status frame rates for each SparkMax role. Each profile reports
+ * the signals that role actually consumes at the rate it needs them, and
+ * slows everything else down to reduce CAN bus load.
+ * 
+ * Status frames: 0 = applied output/faults, 1 = velocity/current/temperature,
+ * 2 = position, 3 = analog sensor, 4 = alternate encoder, 5 = absolute encoder
+ * position, 6 = absolute encoder velocity.
+ */
+public enum SparkMaxStatusProfile {
+
+  // Driving motor: position for odometry, velocity for diagnostics.
+  DRIVE(10, 20, odometryPeriodMs(), Slow.OFF, Slow.OFF, Slow.OFF, Slow.OFF),
+
+  // Turning motor: the absolute encoder angle for odometry and optimization.
+  AZIMUTH(10, Slow.RARE, Slow.RARE, Slow.OFF, Slow.OFF, odometryPeriodMs(), Slow.RARE),
+
+  // Arm: position and velocity for the motion profile and feed forward.
+  ARM(10, 20, 20, Slow.OFF, Slow.OFF, Slow.OFF, Slow.OFF),
+
+  // Open loop rollers: nothing is read back except occasional diagnostics.
+  OPEN_LOOP_ROLLER(Slow.RARE, Slow.RARE, Slow.RARE, Slow.OFF, Slow.OFF, Slow.OFF, Slow.OFF),
+
+  // Open loop rollers that sense game pieces: current every cycle.
+  SENSED_ROLLER(Slow.RARE, 20, Slow.RARE, Slow.OFF, Slow.OFF, Slow.OFF, Slow.OFF);
+
+  private static final class Slow {
+    static final int RARE = 500; // ms, still visible in the REV Hardware Client
+    static final int OFF = 65535; // ms, the longest period the SparkMax allows
+  }
+
+  // Approximate size of an extended CAN frame with an 8 byte payload, including
+  // typical bit stuffing, on a 1 Mbit/s bus.
+  private static final double BITS_PER_FRAME = 135.0;
+  private static final double BUS_BITS_PER_SECOND = 1E6;
+
+  private static final PeriodicFrame[] FRAMES = {
+      PeriodicFrame.kStatus0, PeriodicFrame.kStatus1, PeriodicFrame.kStatus2, PeriodicFrame.kStatus3,
+      PeriodicFrame.kStatus4, PeriodicFrame.kStatus5, PeriodicFrame.kStatus6 };
+
+  // REV defaults, used to report the load saved by each profile.
+  private static final int[] DEFAULT_PERIODS_MS = { 10, 20, 20, 50, 20, 200, 200 };
+
+  // Devices configured with each profile since boot, for the bus load report.
+  private static final EnumMap<SparkMaxStatusProfile, Integer> deviceCounts = new EnumMap<>(
+      SparkMaxStatusProfile.class);
+
+  private final int[] periodsMs;
+
+  SparkMaxStatusProfile(int... _periodsMs) {
+    periodsMs = _periodsMs;
+  }
+
+  /**
+   * Applies the profile's status frame periods to a SparkMax. Periods are not
+   * saved by burnFlash(), so this must run on every boot.
+   * 
+   * @param sparkMax The SparkMax to configure.
+   */
+  public void apply(CANSparkMax sparkMax) {
+    for (int i = 0; i < FRAMES.length; i++) {
+      sparkMax.setPeriodicFramePeriod(FRAMES[i], periodsMs[i]);
+    }
+    deviceCounts.merge(this, 1, Integer::sum);
+  }
+
+  /**
+   * @return the estimated status frames per second sent by one device.
+   */
+  public double getFramesPerSecond() {
+    return framesPerSecond(periodsMs);
+  }
+
+  /**
+   * @return the estimated bus load of one device using this profile (0 to 1).
+   */
+  public double getBusLoadPerDevice() {
+    return getFramesPerSecond() * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+  }
+
+  /**
+   * Logs the estimated status frame bus load of every profile, compared with
+   * REV's default rates, and puts the total on the dashboard.
+   */
+  public static void reportBusLoad() {
+    double defaultLoad = framesPerSecond(DEFAULT_PERIODS_MS) * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    double totalLoad = 0.0;
+    int totalDevices = 0;
+
+    Log.info("SparkMax", "Status frame bus load (estimated):");
+    for (SparkMaxStatusProfile profile : values()) {
+      int deviceCount = deviceCounts.getOrDefault(profile, 0);
+      double load = profile.getBusLoadPerDevice() * deviceCount;
+      totalLoad += load;
+      totalDevices += deviceCount;
+      Log.info("SparkMax", String.format("  %-16s x%-2d %6.1f frames/s each  %5.1f%% of bus",
+          profile.name(), deviceCount, profile.getFramesPerSecond(), load * 100.0));
+    }
+    Log.info("SparkMax", String.format("  TOTAL            x%-2d %5.1f%% of bus (REV defaults: %5.1f%%)",
+        totalDevices, totalLoad * 100.0, defaultLoad * totalDevices * 100.0));
+
+    SmartDashboard.putNumber("CAN Status Load %", totalLoad * 100.0);
+  }
+
+  private static double framesPerSecond(int[] periods) {
+    double frames = 0.0;
+    for (int period : periods) {
+      frames += 1000.0 / period;
+    }
+    return frames;
+  }
+
+  private static int odometryPeriodMs() {
+    return (int) Math.round(1000.0 / ODOMETRY_FREQUENCY_HZ);
+  }
+
+}
@@ -0,0 +1,195 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Allocation-free kinematics for a four module swerve drive. Does the same
+ * math as WPILib's SwerveDriveKinematics, unrolled over the four modules on
+ * primitive doubles, and writes into caller buffers instead of allocating
+ * matrices and SwerveModuleStates.
+ *
+ * Modules are in the order front left, front right, rear left, rear right.
+ * Instances hold only constants, so one can be shared between threads.
+ */
+public class SwerveKinematics {
+
+  // Module locations relative to the robot center.
+  private final double x0, y0, x1, y1, x2, y2, x3, y3;
+
+  // Forward kinematics: the pseudo-inverse of the inverse kinematics matrix,
+  // one row per chassis component, with an x and a y coefficient per module.
+  private final double vx0x, vx0y, vx1x, vx1y, vx2x, vx2y, vx3x, vx3y;
+  private final double vy0x, vy0y, vy1x, vy1y, vy2x, vy2y, vy3x, vy3y;
+  private final double w0x, w0y, w1x, w1y, w2x, w2y, w3x, w3y;
+
+  /**
+   * @param moduleLocations The four module locations relative to the robot
+   *                        center.
+   */
+  public SwerveKinematics(Translation2d[] moduleLocations) {
+    if (moduleLocations.length != 4) {
+      throw new IllegalArgumentException("SwerveKinematics needs exactly 4 modules");
+    }
+    x0 = moduleLocations[0].getX();
+    y0 = moduleLocations[0].getY();
+    x1 = moduleLocations[1].getX();
+    y1 = moduleLocations[1].getY();
+    x2 = moduleLocations[2].getX();
+    y2 = moduleLocations[2].getY();
+    x3 = moduleLocations[3].getX();
+    y3 = moduleLocations[3].getY();
+
+    // Normal equations of the inverse kinematics matrix A, where each module i
+    // contributes the rows [1, 0, -y_i] and [0, 1, x_i]. Pseudo-inverse =
+    // (A^T A)^-1 A^T.
+    double sumX = x0 + x1 + x2 + x3;
+    double sumY = y0 + y1 + y2 + y3;
+    double sumSquares = x0 * x0 + y0 * y0 + x1 * x1 + y1 * y1 + x2 * x2 + y2 * y2 + x3 * x3 + y3 * y3;
+    double[][] inverse = invert3x3(new double[][] {
+        { 4.0, 0.0, -sumY },
+        { 0.0, 4.0, sumX },
+        { -sumY, sumX, sumSquares } });
+
+    vx0x = inverse[0][0] - inverse[0][2] * y0;
+    vx0y = inverse[0][1] + inverse[0][2] * x0;
+    vx1x = inverse[0][0] - inverse[0][2] * y1;
+    vx1y = inverse[0][1] + inverse[0][2] * x1;
+    vx2x = inverse[0][0] - inverse[0][2] * y2;
+    vx2y = inverse[0][1] + inverse[0][2] * x2;
+    vx3x = inverse[0][0] - inverse[0][2] * y3;
+    vx3y = inverse[0][1] + inverse[0][2] * x3;
+
+    vy0x = inverse[1][0] - inverse[1][2] * y0;
+    vy0y = inverse[1][1] + inverse[1][2] * x0;
+    vy1x = inverse[1][0] - inverse[1][2] * y1;
+    vy1y = inverse[1][1] + inverse[1][2] * x1;
+    vy2x = inverse[1][0] - inverse[1][2] * y2;
+    vy2y = inverse[1][1] + inverse[1][2] * x2;
+    vy3x = inverse[1][0] - inverse[1][2] * y3;
+    vy3y = inverse[1][1] + inverse[1][2] * x3;
+
+    w0x = inverse[2][0] - inverse[2][2] * y0;
+    w0y = inverse[2][1] + inverse[2][2] * x0;
+    w1x = inverse[2][0] - inverse[2][2] * y1;
+    w1y = inverse[2][1] + inverse[2][2] * x1;
+    w2x = inverse[2][0] - inverse[2][2] * y2;
+    w2y = inverse[2][1] + inverse[2][2] * x2;
+    w3x = inverse[2][0] - inverse[2][2] * y3;
+    w3y = inverse[2][1] + inverse[2][2] * x3;
+  }
+
+  /**
+   * Inverse kinematics: the module velocity vectors for a chassis speed.
+   *
+   * @param xSpeed       Robot relative forward velocity.
+   * @param ySpeed       Robot relative sideways velocity.
+   * @param angularSpeed Angular velocity in rad/s.
+   * @param xSpeeds      Filled with the module x velocities.
+   * @param ySpeeds      Filled with the module y velocities.
+   */
+  public void toModuleVelocities(double xSpeed, double ySpeed, double angularSpeed, double[] xSpeeds,
+      double[] ySpeeds) {
+    xSpeeds[0] = xSpeed - angularSpeed * y0;
+    ySpeeds[0] = ySpeed + angularSpeed * x0;
+    xSpeeds[1] = xSpeed - angularSpeed * y1;
+    ySpeeds[1] = ySpeed + angularSpeed * x1;
+    xSpeeds[2] = xSpeed - angularSpeed * y2;
+    ySpeeds[2] = ySpeed + angularSpeed * x2;
+    xSpeeds[3] = xSpeed - angularSpeed * y3;
+    ySpeeds[3] = ySpeed + angularSpeed * x3;
+  }
+
+  /**
+   * Inverse kinematics: the module speeds and angles for a chassis speed. Like
+   * SwerveDriveKinematics.toSwerveModuleStates(), when the chassis speed is
+   * zero the angles are left as they are.
+   *
+   * @param xSpeed       Robot relative forward velocity, in m/s.
+   * @param ySpeed       Robot relative sideways velocity, in m/s.
+   * @param angularSpeed Angular velocity in rad/s.
+   * @param speeds       Filled with the module speeds, in m/s.
+   * @param angles       Filled with the module angles relative to the chassis,
+   *                     in radians.
+   */
+  public void toModuleStates(double xSpeed, double ySpeed, double angularSpeed, double[] speeds, double[] angles) {
+    if (xSpeed == 0.0 && ySpeed == 0.0 && angularSpeed == 0.0) {
+      speeds[0] = 0.0;
+      speeds[1] = 0.0;
+      speeds[2] = 0.0;
+      speeds[3] = 0.0;
+      return;
+    }
+    double vx0 = xSpeed - angularSpeed * y0;
+    double vy0 = ySpeed + angularSpeed * x0;
+    double vx1 = xSpeed - angularSpeed * y1;
+    double vy1 = ySpeed + angularSpeed * x1;
+    double vx2 = xSpeed - angularSpeed * y2;
+    double vy2 = ySpeed + angularSpeed * x2;
+    double vx3 = xSpeed - angularSpeed * y3;
+    double vy3 = ySpeed + angularSpeed * x3;
+    speeds[0] = Math.hypot(vx0, vy0);
+    speeds[1] = Math.hypot(vx1, vy1);
+    speeds[2] = Math.hypot(vx2, vy2);
+    speeds[3] = Math.hypot(vx3, vy3);
+    angles[0] = Math.atan2(vy0, vx0);
+    angles[1] = Math.atan2(vy1, vx1);
+    angles[2] = Math.atan2(vy2, vx2);
+    angles[3] = Math.atan2(vy3, vx3);
+  }
+
+  /**
+   * Forward kinematics: the least squares chassis speed for the module
+   * states. Given module distance deltas instead of speeds, gives the chassis
+   * twist.
+   *
+   * @param speeds  The module speeds (or distance deltas).
+   * @param angles  The module angles relative to the chassis, in radians.
+   * @param chassis Filled with x, y and angular speed (or twist).
+   */
+  public void toChassisSpeeds(double[] speeds, double[] angles, double[] chassis) {
+    double mx0 = speeds[0] * Math.cos(angles[0]);
+    double my0 = speeds[0] * Math.sin(angles[0]);
+    double mx1 = speeds[1] * Math.cos(angles[1]);
+    double my1 = speeds[1] * Math.sin(angles[1]);
+    double mx2 = speeds[2] * Math.cos(angles[2]);
+    double my2 = speeds[2] * Math.sin(angles[2]);
+    double mx3 = speeds[3] * Math.cos(angles[3]);
+    double my3 = speeds[3] * Math.sin(angles[3]);
+    chassis[0] = vx0x * mx0 + vx0y * my0 + vx1x * mx1 + vx1y * my1 + vx2x * mx2 + vx2y * my2 + vx3x * mx3
+        + vx3y * my3;
+    chassis[1] = vy0x * mx0 + vy0y * my0 + vy1x * mx1 + vy1y * my1 + vy2x * mx2 + vy2y * my2 + vy3x * mx3
+        + vy3y * my3;
+    chassis[2] = w0x * mx0 + w0y * my0 + w1x * mx1 + w1y * my1 + w2x * mx2 + w2y * my2 + w3x * mx3 + w3y * my3;
+  }
+
+  /**
+   * Scales the module speeds down so none is above the max speed, keeping
+   * their ratios, like SwerveDriveKinematics.desaturateWheelSpeeds().
+   *
+   * @param speeds   The module speeds, scaled in place.
+   * @param maxSpeed The max module speed.
+   */
+  public static void desaturate(double[] speeds, double maxSpeed) {
+    double max = Math.max(Math.max(Math.abs(speeds[0]), Math.abs(speeds[1])),
+        Math.max(Math.abs(speeds[2]), Math.abs(speeds[3])));
+    if (max > maxSpeed) {
+      double scale = maxSpeed / max;
+      speeds[0] *= scale;
+      speeds[1] *= scale;
+      speeds[2] *= scale;
+      speeds[3] *= scale;
+    }
+  }
+
+  private static double[][] invert3x3(double[][] m) {
+    double a = m[0][0], b = m[0][1], c = m[0][2];
+    double d = m[1][0], e = m[1][1], f = m[1][2];
+    double g = m[2][0], h = m[2][1], i = m[2][2];
+    double det = a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    return new double[][] {
+        { (e * i - f * h) / det, (c * h - b * i) / det, (b * f - c * e) / det },
+        { (f * g - d * i) / det, (a * i - c * g) / det, (c * d - a * f) / det },
+        { (d * h - e * g) / det, (b * g - a * h) / det, (a * e - b * d) / det } };
+  }
+
+}
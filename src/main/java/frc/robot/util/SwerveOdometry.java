@@ -0,0 +1,155 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Allocation-free swerve drive odometry for a four module drive.
+ * 
+ * Integrates module distance deltas with the same twist/exponential math as
+ * WPILib's SwerveDriveOdometry, but keeps all state in primitive fields so a
+ * steady-state update does not allocate. The twist comes from the unrolled
+ * SwerveKinematics.
+ */
+public class SwerveOdometry {
+
+  private final SwerveKinematics kinematics;
+  private final int moduleCount;
+
+  private final double[] previousDistances;
+  private final double[] deltas;
+  private final double[] angles;
+  private final double[] twist = new double[3];
+
+  private double poseX;
+  private double poseY;
+  private double poseTheta;
+  private double gyroOffset;
+  private double previousAngle;
+
+  /**
+   * Creates a new odometry object.
+   * 
+   * @param moduleLocations The module locations relative to the robot center.
+   * @param gyroRadians     The current gyro angle in radians.
+   * @param positions       The current module positions.
+   * @param initialPose     The starting pose of the robot.
+   */
+  public SwerveOdometry(Translation2d[] moduleLocations, double gyroRadians, MutableModulePosition[] positions,
+      Pose2d initialPose) {
+    kinematics = new SwerveKinematics(moduleLocations);
+    moduleCount = moduleLocations.length;
+    previousDistances = new double[moduleCount];
+    deltas = new double[moduleCount];
+    angles = new double[moduleCount];
+
+    resetPosition(gyroRadians, positions, initialPose);
+  }
+
+  /**
+   * Resets the robot's position on the field.
+   * 
+   * @param gyroRadians The current gyro angle in radians.
+   * @param positions   The current module positions.
+   * @param pose        The new pose of the robot.
+   */
+  public void resetPosition(double gyroRadians, MutableModulePosition[] positions, Pose2d pose) {
+    resetPosition(gyroRadians, positions, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /**
+   * Resets the robot's position on the field without allocating.
+   * 
+   * @param gyroRadians The current gyro angle in radians.
+   * @param positions   The current module positions.
+   * @param x           The new x position of the robot in meters.
+   * @param y           The new y position of the robot in meters.
+   * @param theta       The new heading of the robot in radians.
+   */
+  public synchronized void resetPosition(double gyroRadians, MutableModulePosition[] positions, double x, double y,
+      double theta) {
+    poseX = x;
+    poseY = y;
+    poseTheta = MathUtil.angleModulus(theta);
+    gyroOffset = poseTheta - gyroRadians;
+    previousAngle = poseTheta;
+    for (int i = 0; i < moduleCount; i++) {
+      previousDistances[i] = positions[i].distanceMeters;
+    }
+  }
+
+  /**
+   * Updates the robot's position on the field using forward kinematics and
+   * integration of the pose over time.
+   * 
+   * @param gyroRadians The current gyro angle in radians.
+   * @param positions   The current module positions.
+   */
+  public synchronized void update(double gyroRadians, MutableModulePosition[] positions) {
+    for (int i = 0; i < moduleCount; i++) {
+      deltas[i] = positions[i].distanceMeters - previousDistances[i];
+      angles[i] = positions[i].angleRadians;
+      previousDistances[i] = positions[i].distanceMeters;
+    }
+    kinematics.toChassisSpeeds(deltas, angles, twist);
+    double dx = twist[0];
+    double dy = twist[1];
+
+    // The gyro is trusted for heading, matching WPILib's odometry.
+    double angle = gyroRadians + gyroOffset;
+    double dtheta = MathUtil.angleModulus(angle - previousAngle);
+    previousAngle = angle;
+
+    // Pose exponential: integrate the twist along a constant-curvature arc.
+    double sinTheta = Math.sin(dtheta);
+    double cosTheta = Math.cos(dtheta);
+    double s;
+    double c;
+    if (Math.abs(dtheta) < 1E-9) {
+      s = 1.0 - dtheta * dtheta / 6.0;
+      c = 0.5 * dtheta;
+    } else {
+      s = sinTheta / dtheta;
+      c = (1 - cosTheta) / dtheta;
+    }
+    double localX = dx * s - dy * c;
+    double localY = dx * c + dy * s;
+
+    double cosPose = Math.cos(poseTheta);
+    double sinPose = Math.sin(poseTheta);
+    poseX += localX * cosPose - localY * sinPose;
+    poseY += localX * sinPose + localY * cosPose;
+    poseTheta = MathUtil.angleModulus(angle);
+  }
+
+  /**
+   * @return the robot's pose. Allocates a new Pose2d on every call.
+   */
+  public synchronized Pose2d getPoseMeters() {
+    return new Pose2d(poseX, poseY, new Rotation2d(poseTheta));
+  }
+
+  /**
+   * @return the robot's x position in meters.
+   */
+  public synchronized double getX() {
+    return poseX;
+  }
+
+  /**
+   * @return the robot's y position in meters.
+   */
+  public synchronized double getY() {
+    return poseY;
+  }
+
+  /**
+   * @return the robot's heading in radians (-pi to pi).
+   */
+  public synchronized double getThetaRadians() {
+    return poseTheta;
+  }
+
+}
@@ -0,0 +1,308 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Latency-compensated swerve pose estimator.
+ * 
+ * Wraps SwerveOdometry and records every odometry update (timestamp, gyro
+ * angle, module positions and resulting pose) in a bounded history. Vision
+ * measurements are stamped with their capture time: the estimator rewinds to
+ * that time, blends the interpolated pose towards the measurement, and
+ * replays every later odometry update on top of the corrected pose.
+ */
+public class SwervePoseEstimator {
+
+  private final SwerveOdometry odometry;
+  private final int moduleCount;
+  private final double historySeconds;
+
+  // Kalman-style gains for x, y and theta.
+  private final double[] stateVariances = new double[3];
+  private final double[] visionGains = new double[3];
+
+  // Pose history ring buffer, stored as primitive arrays.
+  private final int capacity;
+  private final int mask;
+  private final double[] times;
+  private final double[] gyros;
+  private final double[] distances;
+  private final double[] angles;
+  private final double[] poseXs;
+  private final double[] poseYs;
+  private final double[] poseThetas;
+  private int start = 0;
+  private int size = 0;
+
+  // Scratch holders used while replaying history.
+  private final MutableModulePosition[] replayPositions;
+
+  /**
+   * Creates a new pose estimator.
+   * 
+   * @param moduleLocations  The module locations relative to the robot center.
+   * @param gyroRadians      The current gyro angle in radians.
+   * @param positions        The current module positions.
+   * @param initialPose      The starting pose of the robot.
+   * @param stateStdDevs     Standard deviations of the odometry pose (x meters,
+   *                         y meters, theta radians).
+   * @param visionStdDevs    Default standard deviations of vision measurements
+   *                         (x meters, y meters, theta radians).
+   * @param _historySeconds  How far back vision measurements may be applied.
+   * @param historyCapacity  The maximum number of odometry updates to keep.
+   */
+  public SwervePoseEstimator(Translation2d[] moduleLocations, double gyroRadians, MutableModulePosition[] positions,
+      Pose2d initialPose, double[] stateStdDevs, double[] visionStdDevs, double _historySeconds,
+      int historyCapacity) {
+    odometry = new SwerveOdometry(moduleLocations, gyroRadians, positions, initialPose);
+    moduleCount = moduleLocations.length;
+    historySeconds = _historySeconds;
+
+    capacity = Integer.highestOneBit(Math.max(2, historyCapacity - 1)) << 1;
+    mask = capacity - 1;
+    times = new double[capacity];
+    gyros = new double[capacity];
+    distances = new double[capacity * moduleCount];
+    angles = new double[capacity * moduleCount];
+    poseXs = new double[capacity];
+    poseYs = new double[capacity];
+    poseThetas = new double[capacity];
+
+    replayPositions = new MutableModulePosition[moduleCount];
+    for (int i = 0; i < moduleCount; i++) {
+      replayPositions[i] = new MutableModulePosition();
+    }
+
+    for (int i = 0; i < 3; i++) {
+      stateVariances[i] = stateStdDevs[i] * stateStdDevs[i];
+    }
+    setVisionStdDevs(visionStdDevs[0], visionStdDevs[1], visionStdDevs[2]);
+  }
+
+  /**
+   * Sets the default trust in vision measurements.
+   * 
+   * @param xStdDev     The x standard deviation in meters.
+   * @param yStdDev     The y standard deviation in meters.
+   * @param thetaStdDev The theta standard deviation in radians.
+   */
+  public synchronized void setVisionStdDevs(double xStdDev, double yStdDev, double thetaStdDev) {
+    visionGains[0] = gain(stateVariances[0], xStdDev);
+    visionGains[1] = gain(stateVariances[1], yStdDev);
+    visionGains[2] = gain(stateVariances[2], thetaStdDev);
+  }
+
+  /**
+   * Resets the robot's position on the field and clears the pose history.
+   * 
+   * @param gyroRadians The current gyro angle in radians.
+   * @param positions   The current module positions.
+   * @param pose        The new pose of the robot.
+   */
+  public synchronized void resetPosition(double gyroRadians, MutableModulePosition[] positions, Pose2d pose) {
+    odometry.resetPosition(gyroRadians, positions, pose);
+    start = 0;
+    size = 0;
+  }
+
+  /**
+   * Integrates an odometry sample and records it in the pose history.
+   * 
+   * @param timestampSeconds The FPGA timestamp the sample was taken at.
+   * @param gyroRadians      The gyro angle in radians.
+   * @param positions        The module positions.
+   */
+  public synchronized void update(double timestampSeconds, double gyroRadians, MutableModulePosition[] positions) {
+    odometry.update(gyroRadians, positions);
+
+    // Drop history that is too old to be corrected or would be overwritten.
+    while (size > 0 && (size == capacity || times[start] < timestampSeconds - historySeconds)) {
+      start = (start + 1) & mask;
+      size--;
+    }
+
+    int index = (start + size) & mask;
+    size++;
+    times[index] = timestampSeconds;
+    gyros[index] = gyroRadians;
+    for (int i = 0; i < moduleCount; i++) {
+      distances[index * moduleCount + i] = positions[i].distanceMeters;
+      angles[index * moduleCount + i] = positions[i].angleRadians;
+    }
+    storePose(index);
+  }
+
+  /**
+   * Adds a vision measurement using the default vision standard deviations.
+   * 
+   * @param visionPose       The robot pose measured by vision.
+   * @param timestampSeconds The FPGA timestamp the image was captured at.
+   * @return true if the measurement was applied.
+   */
+  public synchronized boolean addVisionMeasurement(Pose2d visionPose, double timestampSeconds) {
+    return applyVisionMeasurement(visionPose.getX(), visionPose.getY(), visionPose.getRotation().getRadians(),
+        timestampSeconds, visionGains[0], visionGains[1], visionGains[2]);
+  }
+
+  /**
+   * Adds a vision measurement with measurement-specific standard deviations.
+   * 
+   * @param visionPose       The robot pose measured by vision.
+   * @param timestampSeconds The FPGA timestamp the image was captured at.
+   * @param xStdDev          The x standard deviation in meters.
+   * @param yStdDev          The y standard deviation in meters.
+   * @param thetaStdDev      The theta standard deviation in radians.
+   * @return true if the measurement was applied.
+   */
+  public synchronized boolean addVisionMeasurement(Pose2d visionPose, double timestampSeconds, double xStdDev,
+      double yStdDev, double thetaStdDev) {
+    return applyVisionMeasurement(visionPose.getX(), visionPose.getY(), visionPose.getRotation().getRadians(),
+        timestampSeconds, gain(stateVariances[0], xStdDev), gain(stateVariances[1], yStdDev),
+        gain(stateVariances[2], thetaStdDev));
+  }
+
+  /**
+   * Looks up the estimated pose at a past time, interpolated from the pose
+   * history. Times outside the history are clamped to the oldest or newest
+   * pose.
+   * 
+   * @param timestampSeconds The FPGA time.
+   * @param pose             Filled with x meters, y meters and theta radians.
+   */
+  public synchronized void samplePose(double timestampSeconds, double[] pose) {
+    if (size == 0) {
+      pose[0] = odometry.getX();
+      pose[1] = odometry.getY();
+      pose[2] = odometry.getThetaRadians();
+      return;
+    }
+    int entry = findEntry(timestampSeconds);
+    int index = (start + entry) & mask;
+    pose[0] = poseXs[index];
+    pose[1] = poseYs[index];
+    pose[2] = poseThetas[index];
+    if (entry < size - 1) {
+      int next = (start + entry + 1) & mask;
+      double span = times[next] - times[index];
+      double t = span > 0.0 ? MathUtil.clamp((timestampSeconds - times[index]) / span, 0.0, 1.0) : 0.0;
+      pose[0] += (poseXs[next] - pose[0]) * t;
+      pose[1] += (poseYs[next] - pose[1]) * t;
+      pose[2] += MathUtil.angleModulus(poseThetas[next] - pose[2]) * t;
+    }
+  }
+
+  /**
+   * @return the estimated pose of the robot. Allocates a new Pose2d.
+   */
+  public synchronized Pose2d getEstimatedPosition() {
+    return odometry.getPoseMeters();
+  }
+
+  /**
+   * @return the estimated x position of the robot in meters.
+   */
+  public synchronized double getX() {
+    return odometry.getX();
+  }
+
+  /**
+   * @return the estimated y position of the robot in meters.
+   */
+  public synchronized double getY() {
+    return odometry.getY();
+  }
+
+  /**
+   * @return the estimated heading of the robot in radians (-pi to pi).
+   */
+  public synchronized double getThetaRadians() {
+    return odometry.getThetaRadians();
+  }
+
+  private boolean applyVisionMeasurement(double visionX, double visionY, double visionTheta, double timestamp,
+      double xGain, double yGain, double thetaGain) {
+    // Measurements older than the history cannot be replayed.
+    if (size == 0 || timestamp < times[start]) {
+      return false;
+    }
+
+    // Find the newest history entry at or before the capture time.
+    int entry = findEntry(timestamp);
+    int index = (start + entry) & mask;
+
+    // Interpolate the pose at the capture time.
+    double sampleX = poseXs[index];
+    double sampleY = poseYs[index];
+    double sampleTheta = poseThetas[index];
+    if (entry < size - 1) {
+      int next = (start + entry + 1) & mask;
+      double span = times[next] - times[index];
+      double t = span > 0.0 ? MathUtil.clamp((timestamp - times[index]) / span, 0.0, 1.0) : 0.0;
+      sampleX += (poseXs[next] - sampleX) * t;
+      sampleY += (poseYs[next] - sampleY) * t;
+      sampleTheta += MathUtil.angleModulus(poseThetas[next] - sampleTheta) * t;
+    }
+
+    // Blend the history entry towards the measurement.
+    double correctedX = poseXs[index] + xGain * (visionX - sampleX);
+    double correctedY = poseYs[index] + yGain * (visionY - sampleY);
+    double correctedTheta = poseThetas[index] + thetaGain * MathUtil.angleModulus(visionTheta - sampleTheta);
+
+    // Rewind to the corrected entry, then replay every later odometry update.
+    loadPositions(index);
+    odometry.resetPosition(gyros[index], replayPositions, correctedX, correctedY, correctedTheta);
+    storePose(index);
+    for (int i = entry + 1; i < size; i++) {
+      int replay = (start + i) & mask;
+      loadPositions(replay);
+      odometry.update(gyros[replay], replayPositions);
+      storePose(replay);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the offset from start of the newest history entry at or before the
+   * given time, or 0 if every entry is newer.
+   */
+  private int findEntry(double timestamp) {
+    int low = 0;
+    int high = size - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (times[(start + mid) & mask] <= timestamp) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  private void loadPositions(int index) {
+    for (int i = 0; i < moduleCount; i++) {
+      replayPositions[i].distanceMeters = distances[index * moduleCount + i];
+      replayPositions[i].angleRadians = angles[index * moduleCount + i];
+    }
+  }
+
+  private void storePose(int index) {
+    poseXs[index] = odometry.getX();
+    poseYs[index] = odometry.getY();
+    poseThetas[index] = odometry.getThetaRadians();
+  }
+
+  /**
+   * Steady-state Kalman gain for one axis, matching WPILib's pose estimators.
+   */
+  private static double gain(double stateVariance, double visionStdDev) {
+    double visionVariance = visionStdDev * visionStdDev;
+    if (stateVariance == 0.0) {
+      return 0.0;
+    }
+    return stateVariance / (stateVariance + Math.sqrt(stateVariance * visionVariance));
+  }
+
+}
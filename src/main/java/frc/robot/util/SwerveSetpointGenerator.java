@@ -0,0 +1,155 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+
+/**
+ * Turns requested chassis speeds into module setpoints the drivetrain can
+ * actually follow, starting from the previous setpoint.
+ *
+ * Every module velocity is linear in the chassis speeds, so the setpoint moves
+ * a fraction s of the way from the previous chassis speeds to the requested
+ * ones, with s as large as the limits allow:
+ * <ul>
+ * <li>chassis acceleration and angular acceleration (traction),
+ * <li>each module's change in velocity (drive motor torque),
+ * <li>each moving module's change in angle (azimuth slew rate).
+ * </ul>
+ * All modules move by the same s, so the setpoint is always a rigid body
+ * motion and the wheels do not fight each other. Stopped modules keep their
+ * angle instead of snapping to zero.
+ */
+public class SwerveSetpointGenerator {
+
+  private static final int STEER_SEARCH_ITERATIONS = 10;
+
+  private final int count = MODULE_TRANSLATIONS.length;
+
+  // Previous setpoint.
+  private double chassisXSpeed = 0.0;
+  private double chassisYSpeed = 0.0;
+  private double chassisAngularSpeed = 0.0;
+  private final double[] moduleXSpeeds = new double[count];
+  private final double[] moduleYSpeeds = new double[count];
+  private final double[] moduleAngles = new double[count];
+
+  // Requested module velocities.
+  private final double[] desiredXSpeeds = new double[count];
+  private final double[] desiredYSpeeds = new double[count];
+
+  /**
+   * Restarts from a stopped robot with the wheels at the given angles.
+   *
+   * @param angles The module angles relative to the chassis, in radians.
+   */
+  public void reset(double[] angles) {
+    chassisXSpeed = 0.0;
+    chassisYSpeed = 0.0;
+    chassisAngularSpeed = 0.0;
+    for (int i = 0; i < count; i++) {
+      moduleXSpeeds[i] = 0.0;
+      moduleYSpeeds[i] = 0.0;
+      moduleAngles[i] = angles[i];
+    }
+  }
+
+  /**
+   * Computes the next setpoint.
+   *
+   * @param xSpeed       Requested robot relative forward velocity, in m/s.
+   * @param ySpeed       Requested robot relative sideways velocity, in m/s.
+   * @param angularSpeed Requested angular velocity, in rad/s.
+   * @param dt           The time until the next setpoint, in seconds.
+   * @param speeds       Filled with the module speeds, in m/s.
+   * @param angles       Filled with the module angles relative to the chassis,
+   *                     in radians.
+   */
+  public void calculate(double xSpeed, double ySpeed, double angularSpeed, double dt, double[] speeds,
+      double[] angles) {
+    // Requested module velocities, desaturated so no module is asked to go
+    // faster than the max speed.
+    SWERVE_KINEMATICS.toModuleVelocities(xSpeed, ySpeed, angularSpeed, desiredXSpeeds, desiredYSpeeds);
+    double maxModuleSpeed = 0.0;
+    for (int i = 0; i < count; i++) {
+      maxModuleSpeed = Math.max(maxModuleSpeed, Math.hypot(desiredXSpeeds[i], desiredYSpeeds[i]));
+    }
+    if (maxModuleSpeed > MAX_METERS_PER_SECOND) {
+      double scale = MAX_METERS_PER_SECOND / maxModuleSpeed;
+      xSpeed *= scale;
+      ySpeed *= scale;
+      angularSpeed *= scale;
+      for (int i = 0; i < count; i++) {
+        desiredXSpeeds[i] *= scale;
+        desiredYSpeeds[i] *= scale;
+      }
+    }
+
+    // Chassis acceleration.
+    double s = 1.0;
+    double speedChange = Math.hypot(xSpeed - chassisXSpeed, ySpeed - chassisYSpeed);
+    double angularSpeedChange = Math.abs(angularSpeed - chassisAngularSpeed);
+    if (speedChange > MAX_ACCELERATION * dt) {
+      s = Math.min(s, MAX_ACCELERATION * dt / speedChange);
+    }
+    if (angularSpeedChange > MAX_ANGULAR_ACCELERATION * dt) {
+      s = Math.min(s, MAX_ANGULAR_ACCELERATION * dt / angularSpeedChange);
+    }
+
+    // Module drive acceleration.
+    for (int i = 0; i < count; i++) {
+      double moduleSpeedChange = Math.hypot(desiredXSpeeds[i] - moduleXSpeeds[i],
+          desiredYSpeeds[i] - moduleYSpeeds[i]);
+      if (moduleSpeedChange > MAX_MODULE_ACCELERATION * dt) {
+        s = Math.min(s, MAX_MODULE_ACCELERATION * dt / moduleSpeedChange);
+      }
+    }
+
+    // Azimuth slew rate of the moving modules. The module angle sweeps
+    // monotonically as s grows, so bisect for the largest s in the limit.
+    double maxSteer = MAX_STEER_RATE * dt;
+    for (int i = 0; i < count; i++) {
+      if (Math.hypot(moduleXSpeeds[i], moduleYSpeeds[i]) > STOPPED_MODULE_SPEED && getSteer(i, s) > maxSteer) {
+        double low = 0.0;
+        double high = s;
+        for (int iteration = 0; iteration < STEER_SEARCH_ITERATIONS; iteration++) {
+          double mid = 0.5 * (low + high);
+          if (getSteer(i, mid) > maxSteer) {
+            high = mid;
+          } else {
+            low = mid;
+          }
+        }
+        s = low;
+      }
+    }
+
+    chassisXSpeed += s * (xSpeed - chassisXSpeed);
+    chassisYSpeed += s * (ySpeed - chassisYSpeed);
+    chassisAngularSpeed += s * (angularSpeed - chassisAngularSpeed);
+    for (int i = 0; i < count; i++) {
+      moduleXSpeeds[i] += s * (desiredXSpeeds[i] - moduleXSpeeds[i]);
+      moduleYSpeeds[i] += s * (desiredYSpeeds[i] - moduleYSpeeds[i]);
+      double speed = Math.hypot(moduleXSpeeds[i], moduleYSpeeds[i]);
+      if (speed > STOPPED_MODULE_SPEED) {
+        moduleAngles[i] = Math.atan2(moduleYSpeeds[i], moduleXSpeeds[i]);
+      }
+      speeds[i] = speed;
+      angles[i] = moduleAngles[i];
+    }
+  }
+
+  /**
+   * Returns how far module i has to turn to reach the setpoint a fraction s of
+   * the way to the request. The module can drive backwards, so the angle is
+   * taken modulo pi.
+   */
+  private double getSteer(int i, double s) {
+    double x = moduleXSpeeds[i] + s * (desiredXSpeeds[i] - moduleXSpeeds[i]);
+    double y = moduleYSpeeds[i] + s * (desiredYSpeeds[i] - moduleYSpeeds[i]);
+    if (Math.hypot(x, y) <= STOPPED_MODULE_SPEED) {
+      return 0.0;
+    }
+    return Math.abs(MathUtil.angleModulus(2.0 * (Math.atan2(y, x) - moduleAngles[i]))) / 2.0;
+  }
+
+}
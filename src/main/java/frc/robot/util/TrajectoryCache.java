@@ -0,0 +1,155 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import static frc.robot.Constants.AutoPathConstants.*;
+
+/**
+ * Loads PathPlanner trajectories on background threads, and caches them by
+ * path name and constraints. Trajectories compiled at build time are read
+ * from their binary files; others are parsed and generated from the .path
+ * JSON.
+ *
+ * Autos preload their paths at startup so robotInit() does not wait for them,
+ * and get them when they are built. get() only blocks if the path is still
+ * loading.
+ */
+public final class TrajectoryCache {
+
+  private static final int LOADER_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+  private static final ExecutorService executor = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+    Thread thread = new Thread(runnable, "TrajectoryLoader");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  private static final Map<String, Future<PathPlannerTrajectory>> trajectories = new ConcurrentHashMap<>();
+  private static final AtomicInteger pendingLoads = new AtomicInteger();
+  // Robot start, set by markRobotStart(). Defaults to when this class loads.
+  private static volatile long startNanos = System.nanoTime();
+  private static volatile double timeToReadySeconds = -1.0;
+
+  private TrajectoryCache() {
+  }
+
+  /**
+   * Starts the time-to-ready clock. Call first thing in robotInit() so the
+   * reported time covers the whole robot startup.
+   */
+  public static void markRobotStart() {
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Starts loading a path in the background, unless it is already cached.
+   * 
+   * @param name        The path file name, without the .path extension.
+   * @param constraints The max velocity and acceleration.
+   */
+  public static void preload(String name, PathConstraints constraints) {
+    trajectories.computeIfAbsent(key(name, constraints), key -> {
+      pendingLoads.incrementAndGet();
+      return executor.submit(() -> {
+        try {
+          return load(name, constraints);
+        } finally {
+          if (pendingLoads.decrementAndGet() == 0) {
+            timeToReadySeconds = (System.nanoTime() - startNanos) * 1E-9;
+            Log.info("TrajectoryCache", "Trajectories ready in " + Math.round(timeToReadySeconds * 1000) + " ms");
+          }
+        }
+      });
+    });
+  }
+
+  /**
+   * Returns a cached path, waiting for it if it is still loading. Paths that
+   * were not preloaded are loaded on the calling thread.
+   * 
+   * @param name        The path file name, without the .path extension.
+   * @param constraints The max velocity and acceleration.
+   * @return the trajectory, or null if the path could not be loaded.
+   */
+  public static PathPlannerTrajectory get(String name, PathConstraints constraints) {
+    Future<PathPlannerTrajectory> trajectory = trajectories.get(key(name, constraints));
+    if (trajectory == null) {
+      Log.warn("TrajectoryCache", name + " was not preloaded, loading it now.");
+      trajectory = CompletableFuture.completedFuture(load(name, constraints));
+      trajectories.put(key(name, constraints), trajectory);
+    }
+    try {
+      return trajectory.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return load(name, constraints);
+    } catch (ExecutionException e) {
+      Log.warn("TrajectoryCache", "Unable to load " + name + ": " + e.getCause());
+      return null;
+    }
+  }
+
+  /**
+   * @return whether every preloaded path has finished loading.
+   */
+  public static boolean isReady() {
+    return pendingLoads.get() == 0;
+  }
+
+  /**
+   * @return the time from robot start until every preloaded path was loaded, in
+   *         seconds, or -1 if paths are still loading.
+   */
+  public static double getTimeToReadySeconds() {
+    return timeToReadySeconds;
+  }
+
+  /**
+   * Puts the loading status on the dashboard.
+   */
+  public static void publish() {
+    SmartDashboard.putNumber("Auto/Trajectories Pending", pendingLoads.get());
+    SmartDashboard.putNumber("Auto/Trajectories Ready ms", timeToReadySeconds * 1000.0);
+  }
+
+  /**
+   * Reads the trajectory compiled at build time, or generates it from the
+   * .path file if it was not compiled for these constraints or the path has
+   * changed since.
+   */
+  private static PathPlannerTrajectory load(String name, PathConstraints constraints) {
+    File deployDirectory = Filesystem.getDeployDirectory();
+    File pathFile = new File(deployDirectory, "pathplanner/" + name + ".path");
+    File compiledFile = new File(new File(deployDirectory, COMPILED_TRAJECTORY_DIRECTORY),
+        TrajectoryFile.fileName(name, constraints));
+    try {
+      PathPlannerTrajectory trajectory = TrajectoryFile.read(compiledFile, TrajectoryFile.checksum(pathFile));
+      if (trajectory != null) {
+        return trajectory;
+      }
+      Log.warn("TrajectoryCache", compiledFile.getName() + " is missing or out of date, generating " + name);
+    } catch (IOException e) {
+      Log.warn("TrajectoryCache", "Unable to read " + compiledFile.getName() + ": " + e);
+    }
+    return PathPlanner.loadPath(name, constraints);
+  }
+
+  private static String key(String name, PathConstraints constraints) {
+    return name + "@" + constraints.maxVelocity + "/" + constraints.maxAcceleration;
+  }
+
+}
@@ -0,0 +1,52 @@
+package frc.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import static frc.robot.Constants.AutoPathConstants.*;
+
+/**
+ * Build-time tool that generates every PathPlanner path for every constraint
+ * set in COMPILED_PATH_CONSTRAINTS and writes them as TrajectoryFiles. Run by
+ * the compileTrajectories Gradle task from the project directory, so PathPlanner
+ * reads the paths from src/main/deploy/pathplanner.
+ */
+public final class TrajectoryCompiler {
+
+  private TrajectoryCompiler() {
+  }
+
+  /**
+   * @param args The .path directory and the output directory.
+   * @throws IOException if a file cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    File pathDirectory = new File(args[0]);
+    File outputDirectory = new File(args[1]);
+    if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+      throw new IOException("Unable to create " + outputDirectory);
+    }
+    File[] oldFiles = outputDirectory.listFiles((directory, file) -> file.endsWith(TrajectoryFile.EXTENSION));
+    for (File file : oldFiles) {
+      file.delete();
+    }
+
+    File[] pathFiles = pathDirectory.listFiles((directory, file) -> file.endsWith(".path"));
+    if (pathFiles == null) {
+      throw new IOException("No paths in " + pathDirectory);
+    }
+    for (File pathFile : pathFiles) {
+      String name = pathFile.getName().substring(0, pathFile.getName().length() - ".path".length());
+      long checksum = TrajectoryFile.checksum(pathFile);
+      for (PathConstraints constraints : COMPILED_PATH_CONSTRAINTS) {
+        PathPlannerTrajectory trajectory = PathPlanner.loadPath(name, constraints);
+        File file = new File(outputDirectory, TrajectoryFile.fileName(name, constraints));
+        TrajectoryFile.write(file, trajectory, checksum);
+        System.out.println("Compiled " + file.getName() + " (" + trajectory.getStates().size() + " states)");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+package frc.robot.util;
+
+import java.util.List;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Samples a trajectory by time with a cursor that only moves forward, for
+ * followers that sample at increasing times every cycle. Trajectory.sample()
+ * binary searches the whole state list and allocates a new state on every
+ * call; the cursor usually advances by zero or one state, and interpolates
+ * into a caller's TrajectorySample.
+ *
+ * The states are copied into primitive arrays when the cursor is created.
+ * For WPILib trajectories, which have no holonomic rotation, the robot faces
+ * the final heading of the trajectory the whole way (like
+ * SwerveControllerCommand).
+ */
+public class TrajectoryCursor {
+
+  private final int count;
+  private final double[] times;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] headings;
+  private final double[] velocities;
+  private final double[] accelerations;
+  private final double[] curvatures;
+  private final double[] holonomicRotations;
+  private final double[] holonomicAngularVelocities;
+  private int index = 0;
+
+  public TrajectoryCursor(Trajectory trajectory) {
+    List<Trajectory.State> states = trajectory.getStates();
+    count = states.size();
+    times = new double[count];
+    xs = new double[count];
+    ys = new double[count];
+    headings = new double[count];
+    velocities = new double[count];
+    accelerations = new double[count];
+    curvatures = new double[count];
+    holonomicRotations = new double[count];
+    holonomicAngularVelocities = new double[count];
+
+    double finalHeading = states.get(count - 1).poseMeters.getRotation().getRadians();
+    for (int i = 0; i < count; i++) {
+      Trajectory.State state = states.get(i);
+      times[i] = state.timeSeconds;
+      xs[i] = state.poseMeters.getX();
+      ys[i] = state.poseMeters.getY();
+      headings[i] = state.poseMeters.getRotation().getRadians();
+      velocities[i] = state.velocityMetersPerSecond;
+      accelerations[i] = state.accelerationMetersPerSecondSq;
+      curvatures[i] = state.curvatureRadPerMeter;
+      if (state instanceof PathPlannerState) {
+        PathPlannerState pathPlannerState = (PathPlannerState) state;
+        holonomicRotations[i] = pathPlannerState.holonomicRotation.getRadians();
+        holonomicAngularVelocities[i] = pathPlannerState.holonomicAngularVelocityRadPerSec;
+      } else {
+        holonomicRotations[i] = finalHeading;
+      }
+    }
+  }
+
+  /**
+   * Moves the cursor back to the start, e.g. when the follower restarts.
+   */
+  public void reset() {
+    index = 0;
+  }
+
+  /**
+   * @return the duration of the trajectory in seconds.
+   */
+  public double getTotalTimeSeconds() {
+    return times[count - 1];
+  }
+
+  /**
+   * Interpolates the trajectory at a time. Sampling at a time earlier than
+   * the previous sample rewinds the cursor to the start.
+   *
+   * @param timeSeconds The time since the start of the trajectory.
+   * @param sample      Filled with the interpolated state.
+   */
+  public void sample(double timeSeconds, TrajectorySample sample) {
+    if (timeSeconds < times[index]) {
+      index = 0;
+    }
+    while (index < count - 2 && times[index + 1] <= timeSeconds) {
+      index++;
+    }
+
+    int i = index;
+    if (count == 1 || timeSeconds <= times[0]) {
+      copy(0, timeSeconds, sample);
+      return;
+    }
+    if (timeSeconds >= times[count - 1]) {
+      copy(count - 1, timeSeconds, sample);
+      return;
+    }
+
+    double t = (timeSeconds - times[i]) / (times[i + 1] - times[i]);
+    sample.timeSeconds = timeSeconds;
+    sample.xMeters = lerp(xs, i, t);
+    sample.yMeters = lerp(ys, i, t);
+    sample.headingRadians = lerpAngle(headings, i, t);
+    sample.velocityMetersPerSecond = lerp(velocities, i, t);
+    sample.accelerationMetersPerSecondSq = lerp(accelerations, i, t);
+    sample.curvatureRadPerMeter = lerp(curvatures, i, t);
+    sample.holonomicRotationRadians = lerpAngle(holonomicRotations, i, t);
+    sample.holonomicAngularVelocityRadPerSec = lerp(holonomicAngularVelocities, i, t);
+  }
+
+  private void copy(int i, double timeSeconds, TrajectorySample sample) {
+    sample.timeSeconds = timeSeconds;
+    sample.xMeters = xs[i];
+    sample.yMeters = ys[i];
+    sample.headingRadians = headings[i];
+    sample.velocityMetersPerSecond = velocities[i];
+    sample.accelerationMetersPerSecondSq = accelerations[i];
+    sample.curvatureRadPerMeter = curvatures[i];
+    sample.holonomicRotationRadians = holonomicRotations[i];
+    sample.holonomicAngularVelocityRadPerSec = holonomicAngularVelocities[i];
+  }
+
+  private static double lerp(double[] values, int i, double t) {
+    return values[i] + (values[i + 1] - values[i]) * t;
+  }
+
+  private static double lerpAngle(double[] angles, int i, double t) {
+    return MathUtil.angleModulus(angles[i] + MathUtil.angleModulus(angles[i + 1] - angles[i]) * t);
+  }
+
+}
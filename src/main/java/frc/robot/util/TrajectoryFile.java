@@ -0,0 +1,207 @@
+package frc.robot.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Reads and writes precomputed PathPlanner trajectories in a compact binary
+ * format, so the robot does not parse JSON or generate trajectories at
+ * startup.
+ *
+ * A file is a header, a flat array of states (10 doubles each:
+ * time, velocity, acceleration, x, y, heading, curvature, holonomic rotation,
+ * angular velocity, holonomic angular velocity), then the event markers and
+ * stop events. The header holds the CRC32 of the .path file it was compiled
+ * from, so a file left over from an older path is never used.
+ */
+public final class TrajectoryFile {
+
+  public static final String EXTENSION = ".traj";
+
+  private static final int MAGIC = 0x5452414A; // "TRAJ"
+  private static final int VERSION = 1;
+
+  private TrajectoryFile() {
+  }
+
+  /**
+   * @param name        The path file name, without the .path extension.
+   * @param constraints The max velocity and acceleration.
+   * @return the compiled file name for the path and constraints.
+   */
+  public static String fileName(String name, PathConstraints constraints) {
+    return name + "_" + constraints.maxVelocity + "_" + constraints.maxAcceleration + EXTENSION;
+  }
+
+  /**
+   * @param pathFile The .path file.
+   * @return the CRC32 of the file contents.
+   * @throws IOException if the file cannot be read.
+   */
+  public static long checksum(File pathFile) throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(Files.readAllBytes(pathFile.toPath()));
+    return crc.getValue();
+  }
+
+  /**
+   * Writes a trajectory.
+   *
+   * @param file       The output file.
+   * @param trajectory The generated trajectory.
+   * @param checksum   The CRC32 of the .path file it was generated from.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(File file, PathPlannerTrajectory trajectory, long checksum) throws IOException {
+    List<Trajectory.State> states = trajectory.getStates();
+    List<EventMarker> markers = trajectory.getMarkers();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(checksum);
+      out.writeInt(states.size());
+      for (Trajectory.State s : states) {
+        PathPlannerState state = (PathPlannerState) s;
+        out.writeDouble(state.timeSeconds);
+        out.writeDouble(state.velocityMetersPerSecond);
+        out.writeDouble(state.accelerationMetersPerSecondSq);
+        out.writeDouble(state.poseMeters.getX());
+        out.writeDouble(state.poseMeters.getY());
+        out.writeDouble(state.poseMeters.getRotation().getRadians());
+        out.writeDouble(state.curvatureRadPerMeter);
+        out.writeDouble(state.holonomicRotation.getRadians());
+        out.writeDouble(state.angularVelocityRadPerSec);
+        out.writeDouble(state.holonomicAngularVelocityRadPerSec);
+      }
+
+      out.writeInt(markers.size());
+      for (EventMarker marker : markers) {
+        out.writeDouble(marker.timeSeconds);
+        out.writeDouble(marker.positionMeters.getX());
+        out.writeDouble(marker.positionMeters.getY());
+        out.writeDouble(marker.waypointRelativePos);
+        writeNames(out, marker.names);
+      }
+      writeStopEvent(out, trajectory.getStartStopEvent());
+      writeStopEvent(out, trajectory.getEndStopEvent());
+    }
+  }
+
+  /**
+   * Memory-maps and reads a trajectory.
+   *
+   * @param file     The compiled file.
+   * @param checksum The CRC32 of the current .path file.
+   * @return the trajectory, or null if the file is missing, from another
+   *         version, or compiled from a different .path file.
+   * @throws IOException if the file cannot be read.
+   */
+  public static PathPlannerTrajectory read(File file, long checksum) throws IOException {
+    if (!file.isFile()) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != checksum) {
+        return null;
+      }
+
+      int stateCount = buffer.getInt();
+      List<Trajectory.State> states = new ArrayList<>(stateCount);
+      for (int i = 0; i < stateCount; i++) {
+        PathPlannerState state = new PathPlannerState();
+        state.timeSeconds = buffer.getDouble();
+        state.velocityMetersPerSecond = buffer.getDouble();
+        state.accelerationMetersPerSecondSq = buffer.getDouble();
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        state.poseMeters = new Pose2d(x, y, new Rotation2d(buffer.getDouble()));
+        state.curvatureRadPerMeter = buffer.getDouble();
+        state.holonomicRotation = new Rotation2d(buffer.getDouble());
+        state.angularVelocityRadPerSec = buffer.getDouble();
+        state.holonomicAngularVelocityRadPerSec = buffer.getDouble();
+        states.add(state);
+      }
+
+      int markerCount = buffer.getInt();
+      List<EventMarker> markers = new ArrayList<>(markerCount);
+      for (int i = 0; i < markerCount; i++) {
+        double time = buffer.getDouble();
+        Translation2d position = new Translation2d(buffer.getDouble(), buffer.getDouble());
+        double waypointRelativePos = buffer.getDouble();
+        markers.add(new CompiledMarker(readNames(buffer), waypointRelativePos, time, position));
+      }
+      StopEvent startStopEvent = readStopEvent(buffer);
+      StopEvent endStopEvent = readStopEvent(buffer);
+
+      return new PathPlannerTrajectory(states, markers, startStopEvent, endStopEvent, true);
+    }
+  }
+
+  private static void writeStopEvent(DataOutputStream out, StopEvent event) throws IOException {
+    writeNames(out, event.names);
+    out.writeInt(event.executionBehavior.ordinal());
+    out.writeInt(event.waitBehavior.ordinal());
+    out.writeDouble(event.waitTime);
+  }
+
+  private static StopEvent readStopEvent(ByteBuffer buffer) {
+    List<String> names = readNames(buffer);
+    StopEvent.ExecutionBehavior executionBehavior = StopEvent.ExecutionBehavior.values()[buffer.getInt()];
+    StopEvent.WaitBehavior waitBehavior = StopEvent.WaitBehavior.values()[buffer.getInt()];
+    return new StopEvent(names, executionBehavior, waitBehavior, buffer.getDouble());
+  }
+
+  private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+    out.writeInt(names.size());
+    for (String name : names) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static List<String> readNames(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      names.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return names;
+  }
+
+  /**
+   * An event marker with its time and position already computed.
+   */
+  private static class CompiledMarker extends EventMarker {
+    CompiledMarker(List<String> names, double waypointRelativePos, double time, Translation2d position) {
+      super(names, waypointRelativePos);
+      timeSeconds = time;
+      positionMeters = position;
+    }
+  }
+
+}
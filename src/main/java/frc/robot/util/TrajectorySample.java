@@ -0,0 +1,19 @@
+package frc.robot.util;
+
+/**
+ * A mutable trajectory state that TrajectoryCursor interpolates into every
+ * cycle instead of allocating a new Trajectory.State.
+ */
+public class TrajectorySample {
+
+  public double timeSeconds;
+  public double xMeters;
+  public double yMeters;
+  public double headingRadians; // direction of travel
+  public double velocityMetersPerSecond;
+  public double accelerationMetersPerSecondSq;
+  public double curvatureRadPerMeter;
+  public double holonomicRotationRadians; // direction the robot faces
+  public double holonomicAngularVelocityRadPerSec;
+
+}
@@ -0,0 +1,161 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+
+/**
+ * Checks SwerveKinematics against WPILib's SwerveDriveKinematics, on the
+ * robot's module layout and on an off-center one.
+ */
+class SwerveKinematicsTest {
+
+  private static final double EPSILON = 1E-9;
+
+  private static final Translation2d[] OFF_CENTER_TRANSLATIONS = {
+      new Translation2d(0.5, 0.2),
+      new Translation2d(0.3, -0.4),
+      new Translation2d(-0.2, 0.35),
+      new Translation2d(-0.45, -0.25) };
+
+  private final SwerveKinematics kinematics = new SwerveKinematics(MODULE_TRANSLATIONS);
+  private final SwerveDriveKinematics wpilibKinematics = new SwerveDriveKinematics(MODULE_TRANSLATIONS);
+  private final SwerveKinematics offCenterKinematics = new SwerveKinematics(OFF_CENTER_TRANSLATIONS);
+  private final SwerveDriveKinematics wpilibOffCenterKinematics = new SwerveDriveKinematics(
+      OFF_CENTER_TRANSLATIONS);
+
+  private final double[] speeds = new double[4];
+  private final double[] angles = new double[4];
+
+  private static void assertAngleEquals(double expected, double actual) {
+    assertEquals(0.0, MathUtil.angleModulus(expected - actual), EPSILON);
+  }
+
+  private static void assertStatesEqual(SwerveModuleState[] expected, double[] speeds, double[] angles) {
+    for (int i = 0; i < 4; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, speeds[i], EPSILON);
+      assertAngleEquals(expected[i].angle.getRadians(), angles[i]);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "1.0, 0.0, 0.0",
+      "0.0, -2.0, 0.0",
+      "0.0, 0.0, 3.0", // pure rotation
+      "0.0, 0.0, -1.5", // pure rotation
+      "1.5, 0.7, -2.0",
+      "4.8, 4.8, 6.28" // saturated
+  })
+  void toModuleStatesMatchesWpilib(double xSpeed, double ySpeed, double angularSpeed) {
+    ChassisSpeeds chassisSpeeds = new ChassisSpeeds(xSpeed, ySpeed, angularSpeed);
+
+    kinematics.toModuleStates(xSpeed, ySpeed, angularSpeed, speeds, angles);
+    assertStatesEqual(wpilibKinematics.toSwerveModuleStates(chassisSpeeds), speeds, angles);
+
+    offCenterKinematics.toModuleStates(xSpeed, ySpeed, angularSpeed, speeds, angles);
+    assertStatesEqual(wpilibOffCenterKinematics.toSwerveModuleStates(chassisSpeeds), speeds, angles);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "0.0, 0.0, 0.0",
+      "0.0, 0.0, 3.0",
+      "1.5, 0.7, -2.0"
+  })
+  void toModuleVelocitiesMatchesWpilib(double xSpeed, double ySpeed, double angularSpeed) {
+    double[] xSpeeds = new double[4];
+    double[] ySpeeds = new double[4];
+    offCenterKinematics.toModuleVelocities(xSpeed, ySpeed, angularSpeed, xSpeeds, ySpeeds);
+    SwerveModuleState[] expected = wpilibOffCenterKinematics.toSwerveModuleStates(
+        new ChassisSpeeds(xSpeed, ySpeed, angularSpeed));
+    for (int i = 0; i < 4; i++) {
+      assertEquals(expected[i].speedMetersPerSecond * expected[i].angle.getCos(), xSpeeds[i], EPSILON);
+      assertEquals(expected[i].speedMetersPerSecond * expected[i].angle.getSin(), ySpeeds[i], EPSILON);
+    }
+  }
+
+  @Test
+  void zeroSpeedKeepsAnglesLikeWpilib() {
+    // Both keep the angles of the last non-zero request.
+    kinematics.toModuleStates(1.0, 0.5, 2.0, speeds, angles);
+    wpilibKinematics.toSwerveModuleStates(new ChassisSpeeds(1.0, 0.5, 2.0));
+
+    kinematics.toModuleStates(0.0, 0.0, 0.0, speeds, angles);
+    assertStatesEqual(wpilibKinematics.toSwerveModuleStates(new ChassisSpeeds()), speeds, angles);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(0.0, speeds[i], 0.0);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "1.0, 0.5, 0.0",
+      "4.8, 4.8, 6.28", // saturated
+      "0.0, 0.0, 20.0", // saturated pure rotation
+      "-6.0, 1.0, -3.0" // saturated
+  })
+  void desaturateMatchesWpilib(double xSpeed, double ySpeed, double angularSpeed) {
+    SwerveModuleState[] expected = wpilibKinematics.toSwerveModuleStates(
+        new ChassisSpeeds(xSpeed, ySpeed, angularSpeed));
+    SwerveDriveKinematics.desaturateWheelSpeeds(expected, MAX_METERS_PER_SECOND);
+
+    kinematics.toModuleStates(xSpeed, ySpeed, angularSpeed, speeds, angles);
+    SwerveKinematics.desaturate(speeds, MAX_METERS_PER_SECOND);
+    assertStatesEqual(expected, speeds, angles);
+  }
+
+  @Test
+  void desaturateHandlesNegativeSpeeds() {
+    double[] signedSpeeds = { -8.0, 4.0, 2.0, -1.0 };
+    SwerveModuleState[] expected = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) {
+      expected[i] = new SwerveModuleState(signedSpeeds[i], new Rotation2d());
+    }
+    SwerveDriveKinematics.desaturateWheelSpeeds(expected, MAX_METERS_PER_SECOND);
+    SwerveKinematics.desaturate(signedSpeeds, MAX_METERS_PER_SECOND);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(expected[i].speedMetersPerSecond, signedSpeeds[i], EPSILON);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0", // zero speed
+      "1.0, 1.0, 1.0, 1.0, 0.0, 0.0, 0.0, 0.0",
+      "2.0, 2.0, 2.0, 2.0, 0.785, 2.356, -0.785, -2.356", // pure rotation
+      "4.8, -3.0, 1.2, 4.8, 0.3, -1.0, 2.5, 3.1", // inconsistent, least squares
+      "-1.0, 2.0, -0.5, 0.25, 1.0, 0.1, -2.0, 0.7"
+  })
+  void toChassisSpeedsMatchesWpilib(double speed0, double speed1, double speed2, double speed3, double angle0,
+      double angle1, double angle2, double angle3) {
+    double[] moduleSpeeds = { speed0, speed1, speed2, speed3 };
+    double[] moduleAngles = { angle0, angle1, angle2, angle3 };
+    SwerveModuleState[] states = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) {
+      states[i] = new SwerveModuleState(moduleSpeeds[i], new Rotation2d(moduleAngles[i]));
+    }
+    double[] chassis = new double[3];
+
+    kinematics.toChassisSpeeds(moduleSpeeds, moduleAngles, chassis);
+    ChassisSpeeds expected = wpilibKinematics.toChassisSpeeds(states);
+    assertEquals(expected.vxMetersPerSecond, chassis[0], EPSILON);
+    assertEquals(expected.vyMetersPerSecond, chassis[1], EPSILON);
+    assertEquals(expected.omegaRadiansPerSecond, chassis[2], EPSILON);
+
+    offCenterKinematics.toChassisSpeeds(moduleSpeeds, moduleAngles, chassis);
+    expected = wpilibOffCenterKinematics.toChassisSpeeds(states);
+    assertEquals(expected.vxMetersPerSecond, chassis[0], EPSILON);
+    assertEquals(expected.vyMetersPerSecond, chassis[1], EPSILON);
+    assertEquals(expected.omegaRadiansPerSecond, chassis[2], EPSILON);
+  }
+
+}
@@ -0,0 +1,136 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import static frc.robot.Constants.SwerveDriveConstants.*;
+
+/**
+ * Checks SwerveOdometry against WPILib's SwerveDriveOdometry over sequences
+ * of module positions and gyro angles.
+ */
+class SwerveOdometryTest {
+
+  private static final double EPSILON = 1E-9;
+  private static final int STEPS = 500;
+
+  private final MutableModulePosition[] positions = new MutableModulePosition[4];
+  private final SwerveModulePosition[] wpilibPositions = new SwerveModulePosition[4];
+
+  SwerveOdometryTest() {
+    for (int i = 0; i < 4; i++) {
+      positions[i] = new MutableModulePosition();
+      wpilibPositions[i] = new SwerveModulePosition();
+    }
+  }
+
+  private void setModule(int i, double distanceMeters, double angleRadians) {
+    positions[i].set(distanceMeters, angleRadians);
+    wpilibPositions[i] = new SwerveModulePosition(distanceMeters, new Rotation2d(angleRadians));
+  }
+
+  private static void assertPoseEquals(Pose2d expected, SwerveOdometry odometry) {
+    assertEquals(expected.getX(), odometry.getX(), EPSILON);
+    assertEquals(expected.getY(), odometry.getY(), EPSILON);
+    assertEquals(0.0, MathUtil.angleModulus(expected.getRotation().getRadians() - odometry.getThetaRadians()),
+        EPSILON);
+  }
+
+  /**
+   * Drives a curving, spinning path with the module speeds and angles the
+   * kinematics give for it, and compares the pose every step.
+   */
+  private void driveAndCompare(double initialGyro, Pose2d initialPose) {
+    SwerveOdometry odometry = new SwerveOdometry(MODULE_TRANSLATIONS, initialGyro, positions, initialPose);
+    SwerveDriveOdometry wpilibOdometry = new SwerveDriveOdometry(SWERVE_DRIVE_KINEMATICS,
+        new Rotation2d(initialGyro), wpilibPositions, initialPose);
+
+    double dt = 0.02;
+    double gyro = initialGyro;
+    double[] distances = new double[4];
+    double[] speeds = new double[4];
+    double[] angles = new double[4];
+    for (int i = 0; i < 4; i++) {
+      distances[i] = positions[i].distanceMeters;
+      angles[i] = positions[i].angleRadians;
+    }
+    for (int step = 0; step < STEPS; step++) {
+      double t = step * dt;
+      double xSpeed = 2.0 * Math.cos(0.7 * t);
+      double ySpeed = 1.0 * Math.sin(0.3 * t);
+      // Includes stretches of no rotation and of pure rotation.
+      double angularSpeed = step < 100 ? 0.0 : 2.5 * Math.sin(0.5 * t);
+      if (step >= 200 && step < 250) {
+        xSpeed = 0.0;
+        ySpeed = 0.0;
+      }
+      SWERVE_KINEMATICS.toModuleStates(xSpeed, ySpeed, angularSpeed, speeds, angles);
+      for (int i = 0; i < 4; i++) {
+        distances[i] += speeds[i] * dt;
+        setModule(i, distances[i], angles[i]);
+      }
+      gyro += angularSpeed * dt;
+
+      odometry.update(gyro, positions);
+      Pose2d expected = wpilibOdometry.update(new Rotation2d(gyro), wpilibPositions);
+      assertPoseEquals(expected, odometry);
+    }
+  }
+
+  @Test
+  void matchesWpilibFromOrigin() {
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 0.0, 0.0);
+    }
+    driveAndCompare(0.0, new Pose2d());
+  }
+
+  @Test
+  void matchesWpilibWithGyroOffset() {
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 1.5 * i, 0.4 * i);
+    }
+    driveAndCompare(2.0, new Pose2d(3.0, -1.0, Rotation2d.fromDegrees(135.0)));
+  }
+
+  @Test
+  void zeroDeltaKeepsPose() {
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 2.0, 1.0);
+    }
+    SwerveOdometry odometry = new SwerveOdometry(MODULE_TRANSLATIONS, 0.5, positions,
+        new Pose2d(1.0, 2.0, new Rotation2d(0.25)));
+    for (int step = 0; step < 10; step++) {
+      odometry.update(0.5, positions);
+    }
+    assertPoseEquals(new Pose2d(1.0, 2.0, new Rotation2d(0.25)), odometry);
+  }
+
+  @Test
+  void resetPositionMatchesWpilib() {
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 0.0, 0.0);
+    }
+    SwerveOdometry odometry = new SwerveOdometry(MODULE_TRANSLATIONS, 0.0, positions, new Pose2d());
+    SwerveDriveOdometry wpilibOdometry = new SwerveDriveOdometry(SWERVE_DRIVE_KINEMATICS, new Rotation2d(),
+        wpilibPositions, new Pose2d());
+
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 0.5, Math.PI / 2);
+    }
+    Pose2d resetPose = new Pose2d(4.0, 5.0, Rotation2d.fromDegrees(-90.0));
+    odometry.resetPosition(1.0, positions, resetPose);
+    wpilibOdometry.resetPosition(new Rotation2d(1.0), wpilibPositions, resetPose);
+
+    for (int i = 0; i < 4; i++) {
+      setModule(i, 1.5, Math.PI / 2);
+    }
+    odometry.update(1.0, positions);
+    assertPoseEquals(wpilibOdometry.update(new Rotation2d(1.0), wpilibPositions), odometry);
+  }
+
+}